@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Compares startup time of the JVM, JVM + AOT, JVM + AOT + CDS and native modes.
+#
+#   ./mvnw -Paot -DskipTests package         # jar with AOT-generated code
+#   ./mvnw -Pnative -DskipTests native:compile  # optional, needs GraalVM
+#   scripts/startup-benchmark.sh [runs]
+#
+# Each mode is started against an in-memory database with dummy credentials and
+# the time reported by Spring's "Started ... in" line is averaged over the runs.
+set -euo pipefail
+
+RUNS=${1:-5}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR=$(ls "$ROOT"/target/github-bot-*.jar | head -n 1)
+NATIVE="$ROOT/target/github-bot"
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+export TELEGRAM_BOT_TOKEN=0:benchmark TELEGRAM_BOT_USERNAME=benchmark
+export TELEGRAM_CHAT_ID=0 TELEGRAM_ADMIN_CHAT_ID=0 GITHUB_WEBHOOK_SECRET=benchmark
+export SPRING_DATASOURCE_URL=jdbc:h2:mem:benchmark PORT=0
+
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+APP="$WORK/app/$(basename "$JAR")"
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$APP" > /dev/null 2>&1
+
+# Prints the startup seconds of one run of the given command.
+startup() {
+    local log="$WORK/run.log"
+    "$@" > "$log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 600); do
+        if grep -q "Started GithubBotApplication" "$log"; then
+            break
+        fi
+        sleep 0.1
+    done
+    kill "$pid" 2> /dev/null || true
+    wait "$pid" 2> /dev/null || true
+    grep -o "Started GithubBotApplication in [0-9.]* seconds" "$log" | awk '{print $4}'
+}
+
+measure() {
+    local name=$1
+    shift
+    for _ in $(seq 1 "$RUNS"); do
+        startup "$@"
+    done | awk -v name="$name" '{ total += $1 } END { printf "%-16s %6.3f s\n", name, total / NR }'
+}
+
+# Startup time depends on the JDK (CDS and AOT cache formats change between releases).
+echo "Average startup over $RUNS runs on $(java -version 2>&1 | head -n 1):"
+measure "jvm" java -jar "$APP"
+measure "jvm+aot" java -Dspring.aot.enabled=true -jar "$APP"
+measure "jvm+aot+cds" java -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.aot.enabled=true -jar "$APP"
+if [[ -x "$NATIVE" ]]; then
+    measure "native" "$NATIVE"
+fi
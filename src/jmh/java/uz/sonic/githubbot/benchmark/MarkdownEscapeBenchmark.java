@@ -0,0 +1,40 @@
+package uz.sonic.githubbot.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uz.sonic.githubbot.util.MarkdownV2Utils;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarkdownEscapeBenchmark {
+
+    @Param({"plain", "escapeHeavy", "unicode"})
+    public String input;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = switch (input) {
+            case "plain" -> "Refactor notification pipeline to use the new client";
+            case "escapeHeavy" -> "fix(*): [edge] cases_with `ticks` > #1 + -2 = |3| {4}. !\\ ".repeat(4);
+            case "unicode" -> "Юникод ✅ 🚀 ünïcödé テスト 🔥 (v1.2.3) ".repeat(4);
+            default -> throw new IllegalArgumentException(input);
+        };
+    }
+
+    @Benchmark
+    public String escape() {
+        return MarkdownV2Utils.escape(text);
+    }
+
+    @Benchmark
+    public StringBuilder appendEscaped() {
+        return MarkdownV2Utils.appendEscaped(new StringBuilder(text.length() * 2), text);
+    }
+}
@@ -0,0 +1,116 @@
+package uz.sonic.githubbot.benchmark;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic push payloads shaped like real GitHub deliveries, including the
+ * repository and sender objects the bot never reads.
+ */
+public final class PayloadFixtures {
+
+    public enum Kind {
+        SMALL_PUSH,
+        TWENTY_COMMITS,
+        PR_MERGE_LONG_DESCRIPTION,
+        ESCAPE_HEAVY_UNICODE
+    }
+
+    static final String SECRET = "benchmark-secret";
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+
+    private PayloadFixtures() {
+    }
+
+    static byte[] payload(Kind kind) {
+        List<Map<String, Object>> commits = new ArrayList<>();
+        switch (kind) {
+            case SMALL_PUSH -> commits.add(commit(0, "Fix typo in README"));
+            case TWENTY_COMMITS -> {
+                for (int i = 0; i < 20; i++) {
+                    commits.add(commit(i, "Refactor module " + i + " to use the new client\n\nDetails for change " + i));
+                }
+            }
+            case PR_MERGE_LONG_DESCRIPTION -> {
+                for (int i = 0; i < 5; i++) {
+                    commits.add(commit(i, "Implement part " + i + " of the feature"));
+                }
+                commits.add(commit(5, "Merge pull request #1234 from owner/feature-branch\n\n"
+                        + "Long description paragraph with details (and links) - see https://example.com/issue.\n".repeat(40)));
+            }
+            case ESCAPE_HEAVY_UNICODE -> {
+                for (int i = 0; i < 10; i++) {
+                    commits.add(commit(i, "fix(*): handle [edge] cases_with `ticks` > #1 + -2 = |3| {4}. !\\ "
+                            + "Юникод ✅ 🚀 ünïcödé テスト 🔥🔥🔥 ".repeat(3)));
+                }
+            }
+        }
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("ref", "refs/heads/main");
+        root.put("before", "0123456789abcdef0123456789abcdef01234567");
+        root.put("after", "fedcba9876543210fedcba9876543210fedcba98");
+        root.put("repository", repository());
+        root.put("pusher", Map.of("name", "octocat", "email", "octocat@example.com"));
+        root.put("sender", sender());
+        root.put("created", false);
+        root.put("deleted", false);
+        root.put("forced", false);
+        root.put("compare", "https://github.com/owner/repo/compare/0123456789ab...fedcba987654");
+        root.put("commits", commits);
+        root.put("head_commit", commits.getLast());
+        return MAPPER.writeValueAsBytes(root);
+    }
+
+    private static Map<String, Object> commit(int i, String message) {
+        Map<String, Object> commit = new LinkedHashMap<>();
+        commit.put("id", String.format("%040x", 0xabcdef00L + i));
+        commit.put("tree_id", String.format("%040x", 0x12345600L + i));
+        commit.put("distinct", true);
+        commit.put("message", message);
+        commit.put("timestamp", "2026-01-01T12:00:00+05:00");
+        commit.put("url", "https://github.com/owner/repo/commit/" + i);
+        commit.put("author", Map.of("name", "Octo Cat", "email", "octocat@example.com", "username", "octocat"));
+        commit.put("committer", Map.of("name", "GitHub", "email", "noreply@github.com", "username", "web-flow"));
+        commit.put("added", List.of("src/main/java/Added" + i + ".java"));
+        commit.put("removed", List.of());
+        commit.put("modified", List.of("README.md", "pom.xml", "src/main/java/Modified" + i + ".java"));
+        return commit;
+    }
+
+    private static Map<String, Object> repository() {
+        Map<String, Object> repository = new LinkedHashMap<>();
+        repository.put("id", 123456789);
+        repository.put("name", "repo");
+        repository.put("full_name", "owner/repo");
+        repository.put("private", false);
+        repository.put("owner", sender());
+        repository.put("html_url", "https://github.com/owner/repo");
+        repository.put("description", "A repository used for benchmarking webhook handling");
+        for (String url : List.of("forks", "keys", "collaborators", "teams", "hooks", "issue_events", "events",
+                "assignees", "branches", "tags", "blobs", "git_tags", "git_refs", "trees", "statuses", "languages",
+                "stargazers", "contributors", "subscribers", "subscription", "commits", "git_commits", "comments")) {
+            repository.put(url + "_url", "https://api.github.com/repos/owner/repo/" + url);
+        }
+        repository.put("default_branch", "main");
+        repository.put("topics", List.of("telegram", "bot", "github"));
+        repository.put("stargazers_count", 42);
+        return repository;
+    }
+
+    private static Map<String, Object> sender() {
+        Map<String, Object> sender = new LinkedHashMap<>();
+        sender.put("login", "octocat");
+        sender.put("id", 1);
+        sender.put("avatar_url", "https://avatars.githubusercontent.com/u/1?v=4");
+        sender.put("html_url", "https://github.com/octocat");
+        sender.put("type", "User");
+        sender.put("site_admin", false);
+        return sender;
+    }
+}
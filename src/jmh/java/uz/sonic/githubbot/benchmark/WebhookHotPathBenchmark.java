@@ -0,0 +1,86 @@
+package uz.sonic.githubbot.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+import uz.sonic.githubbot.config.GitHubWebhookProperties;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.service.GitHubWebhookService;
+import uz.sonic.githubbot.service.PushEventReader;
+import uz.sonic.githubbot.service.WebhookSignatureVerifier;
+import uz.sonic.githubbot.util.MessageTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request costs on the webhook path. Run with {@code -prof gc} (the
+ * profile default) to get {@code gc.alloc.rate.norm} per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebhookHotPathBenchmark {
+
+    @Param({"SMALL_PUSH", "TWENTY_COMMITS", "PR_MERGE_LONG_DESCRIPTION", "ESCAPE_HEAVY_UNICODE"})
+    public PayloadFixtures.Kind kind;
+
+    private byte[] payload;
+    private String signature;
+    private PushEvent event;
+    private GitHubWebhookService webhookService;
+    private PushEventReader reader;
+    private JsonMapper mapper;
+    private MessageTemplate template;
+
+    @Setup
+    public void setUp() throws Exception {
+        var properties = new GitHubWebhookProperties(
+                PayloadFixtures.SECRET, Set.of("push"), 50, DataSize.ofMegabytes(10));
+        webhookService = new GitHubWebhookService(new WebhookSignatureVerifier(properties));
+        reader = new PushEventReader(properties);
+        mapper = JsonMapper.builder().build();
+
+        payload = PayloadFixtures.payload(kind);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(PayloadFixtures.SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        signature = "sha256=" + HexFormat.of().formatHex(mac.doFinal(payload));
+        event = reader.read(payload, 0, payload.length);
+        template = MessageTemplate.compile("""
+                \uD83D\uDD14 {repo:bold} ({branch:code}) by {pusher:bold}
+                {#commits:10}\u2022 {sha:code} {message} \u2014 {author:italic}
+                {/commits}{link}""");
+    }
+
+    @Benchmark
+    public boolean isValidSignature() {
+        return webhookService.isValidSignature(payload, signature);
+    }
+
+    @Benchmark
+    public PushEvent readPushEventStreaming() {
+        return reader.read(payload, 0, payload.length);
+    }
+
+    @Benchmark
+    public PushEvent readPushEventDatabind() {
+        return mapper.readValue(payload, PushEvent.class);
+    }
+
+    @Benchmark
+    public String formatPushMessage() {
+        return webhookService.formatPushMessage(event);
+    }
+
+    @Benchmark
+    public String formatPushMessageTemplate() {
+        return webhookService.formatPushMessage(event, template);
+    }
+}
@@ -3,10 +3,35 @@ package uz.sonic.githubbot;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import uz.sonic.githubbot.config.AdminUpdatesProperties;
+import uz.sonic.githubbot.config.ClusterProperties;
+import uz.sonic.githubbot.config.DeliveryDedupProperties;
+import uz.sonic.githubbot.config.EventJournalProperties;
+import uz.sonic.githubbot.config.GitHubApiProperties;
 import uz.sonic.githubbot.config.GitHubWebhookProperties;
+import uz.sonic.githubbot.config.NativeRuntimeHints;
+import uz.sonic.githubbot.config.NotificationOutboxProperties;
+import uz.sonic.githubbot.config.NotificationPipelineProperties;
+import uz.sonic.githubbot.config.RepoStatsProperties;
+import uz.sonic.githubbot.config.TelegramHttpProperties;
+import uz.sonic.githubbot.config.TelegramRateLimitProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(GitHubWebhookProperties.class)
+@EnableConfigurationProperties({
+        GitHubWebhookProperties.class,
+        GitHubApiProperties.class,
+        DeliveryDedupProperties.class,
+        NotificationPipelineProperties.class,
+        NotificationOutboxProperties.class,
+        EventJournalProperties.class,
+        RepoStatsProperties.class,
+        TelegramRateLimitProperties.class,
+        TelegramHttpProperties.class,
+        AdminUpdatesProperties.class,
+        ClusterProperties.class
+})
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class GithubBotApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,24 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+
+/**
+ * @param mode how the admin bot receives updates
+ * @param webhookUrl public HTTPS URL of {@code /api/telegram/webhook}, required in webhook mode
+ * @param secretToken sent back by Telegram in {@code X-Telegram-Bot-Api-Secret-Token}, required in webhook mode
+ */
+@ConfigurationProperties(prefix = "telegram.admin.updates")
+public record AdminUpdatesProperties(
+        Mode mode,
+        URI webhookUrl,
+        String secretToken,
+        int maxConnections
+) {
+
+    public enum Mode {
+        POLLING,
+        WEBHOOK
+    }
+}
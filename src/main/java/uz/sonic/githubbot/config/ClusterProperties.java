@@ -0,0 +1,17 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param instanceId lease owner name; a random id is used when blank
+ * @param leaseTtl how long a lease stays valid without renewal, must exceed clock skew between instances
+ */
+@ConfigurationProperties(prefix = "cluster")
+public record ClusterProperties(
+        String instanceId,
+        Duration leaseTtl,
+        Duration leaseRenewInterval,
+        Duration routingRefreshInterval
+) {}
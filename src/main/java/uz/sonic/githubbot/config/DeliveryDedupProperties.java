@@ -0,0 +1,8 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "github.webhook.dedup")
+public record DeliveryDedupProperties(Duration window, int maxEntries) {}
@@ -0,0 +1,27 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param maxSize oldest segments are deleted once the journal grows past this
+ * @param retention segments whose newest record is older than this are deleted
+ * @param queueCapacity appends waiting for the writer; further appends are dropped
+ * @param flushInterval how long written records may stay unforced when the journal is idle
+ * @param clusterDirectory parent of every instance's journal directory, read by replay;
+ *                         {@code null} when only this instance's journal is replayed
+ */
+@ConfigurationProperties(prefix = "journal")
+public record EventJournalProperties(
+        boolean enabled,
+        Path directory,
+        DataSize segmentSize,
+        DataSize maxSize,
+        Duration retention,
+        int queueCapacity,
+        Duration flushInterval,
+        Path clusterDirectory
+) {}
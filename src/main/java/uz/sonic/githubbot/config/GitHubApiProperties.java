@@ -0,0 +1,12 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "github.api")
+public record GitHubApiProperties(
+        String baseUrl,
+        String token,
+        Duration timeout
+) {}
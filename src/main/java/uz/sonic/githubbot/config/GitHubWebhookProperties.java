@@ -1,6 +1,14 @@
 package uz.sonic.githubbot.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Set;
 
 @ConfigurationProperties(prefix = "github.webhook")
-public record GitHubWebhookProperties(String secret) {}
+public record GitHubWebhookProperties(
+        String secret,
+        Set<String> events,
+        int maxParsedCommits,
+        DataSize maxPayloadSize
+) {}
@@ -0,0 +1,47 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.forum.CreateForumTopic;
+import org.telegram.telegrambots.meta.api.methods.forum.DeleteForumTopic;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updates.DeleteWebhook;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.forum.ForumTopic;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import uz.sonic.githubbot.model.Commit;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.model.Pusher;
+import uz.sonic.githubbot.model.Repository;
+
+/**
+ * Reflection hints for a native image. Spring covers beans, configuration
+ * records and, through its JPA AOT support, the managed entity types, but not
+ * the types Jackson reaches by reflection: the webhook model records and the
+ * telegrambots request and response types, which the client (de)serializes
+ * with its own ObjectMapper.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        var bindings = new BindingReflectionHintsRegistrar();
+        bindings.registerReflectionHints(hints.reflection(),
+                PushEvent.class, Commit.class, Commit.Author.class, Pusher.class, Repository.class);
+
+        // Walks the full object graph (Message, CallbackQuery, keyboards, ...). Keyboard
+        // rows are ArrayList subclasses, so their button type has to be named explicitly.
+        bindings.registerReflectionHints(hints.reflection(),
+                Update.class, Message.class, ForumTopic.class, ApiResponse.class, InlineKeyboardButton.class,
+                GetUpdates.class, SendMessage.class, EditMessageText.class,
+                CreateForumTopic.class, DeleteForumTopic.class, AnswerCallbackQuery.class,
+                SetWebhook.class, DeleteWebhook.class);
+    }
+}
@@ -0,0 +1,14 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "notification.outbox")
+public record NotificationOutboxProperties(
+        int batchSize,
+        Duration pollInterval,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        int maxAttempts
+) {}
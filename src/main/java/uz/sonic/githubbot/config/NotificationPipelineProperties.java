@@ -0,0 +1,12 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param queueCapacity pushes that may wait to be saved before webhooks are refused
+ * @param pollInterval  how often the leader looks for pushes saved by other instances
+ */
+@ConfigurationProperties(prefix = "notification.pipeline")
+public record NotificationPipelineProperties(int queueCapacity, Duration drainTimeout, Duration pollInterval) {}
@@ -0,0 +1,18 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param windows rolling windows shown by /stats, counted in whole hours; the longest sets how long buckets are kept
+ * @param snapshotInterval how often changed buckets are written to the database
+ * @param topPushers pushers listed per window
+ */
+@ConfigurationProperties(prefix = "stats")
+public record RepoStatsProperties(
+        List<Duration> windows,
+        Duration snapshotInterval,
+        int topPushers
+) {}
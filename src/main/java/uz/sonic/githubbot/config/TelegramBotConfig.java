@@ -1,16 +1,56 @@
 package uz.sonic.githubbot.config;
 
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.telegram.telegrambots.client.okhttp.OkHttpTelegramClient;
+import org.telegram.telegrambots.meta.TelegramUrl;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class TelegramBotConfig {
 
+    /**
+     * The single HTTP transport to the Bot API. Sends and long polling share
+     * its connection pool and dispatcher; polling derives a client with a
+     * longer read timeout via {@link OkHttpClient#newBuilder()}.
+     */
+    @Bean
+    public OkHttpClient telegramHttpClient(TelegramHttpProperties properties) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(properties.maxRequests());
+        dispatcher.setMaxRequestsPerHost(properties.maxRequestsPerHost());
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(properties.maxIdleConnections(),
+                        properties.keepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .protocols(properties.http2()
+                        ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(properties.connectTimeout())
+                .callTimeout(properties.callTimeout())
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    @Bean
+    public TelegramUrl telegramUrl(TelegramHttpProperties properties) {
+        URI uri = properties.apiUrl();
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+        return new TelegramUrl(uri.getScheme(), uri.getHost(), port, false);
+    }
+
     @Bean
-    public TelegramClient telegramClient(@Value("${telegram.bot.token}") String botToken) {
-        return new OkHttpTelegramClient(botToken);
+    public TelegramClient telegramClient(OkHttpClient telegramHttpClient, TelegramUrl telegramUrl,
+                                         @Value("${telegram.bot.token}") String botToken) {
+        return new OkHttpTelegramClient(telegramHttpClient, botToken, telegramUrl);
     }
 }
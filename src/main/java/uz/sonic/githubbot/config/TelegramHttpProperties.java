@@ -0,0 +1,19 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "telegram.http")
+public record TelegramHttpProperties(
+        URI apiUrl,
+        int maxIdleConnections,
+        Duration keepAlive,
+        int maxRequests,
+        int maxRequestsPerHost,
+        boolean http2,
+        Duration connectTimeout,
+        Duration callTimeout,
+        Duration pollingReadTimeout
+) {}
@@ -0,0 +1,12 @@
+package uz.sonic.githubbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "telegram.rate-limit")
+public record TelegramRateLimitProperties(
+        double globalPerSecond,
+        int globalBurst,
+        double perChatPerMinute,
+        int perChatBurst,
+        int maxRetries
+) {}
@@ -1,12 +1,30 @@
 package uz.sonic.githubbot.controller;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.core.JacksonException;
+import uz.sonic.githubbot.filter.WebhookSignatureFilter;
+import uz.sonic.githubbot.filter.WebhookSignatureFilter.CachedBody;
 import uz.sonic.githubbot.model.PushEvent;
-import uz.sonic.githubbot.service.GitHubWebhookService;
-import uz.sonic.githubbot.service.TelegramNotificationService;
+import uz.sonic.githubbot.service.DeliveryDeduplicator;
+import uz.sonic.githubbot.service.EventJournal;
+import uz.sonic.githubbot.service.NotificationPipeline;
+import uz.sonic.githubbot.service.PushEventReader;
+import uz.sonic.githubbot.service.RepoActivityStats;
+import uz.sonic.githubbot.service.RepoRoutingTable;
+import uz.sonic.githubbot.service.RepoRoutingTable.Route;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/github")
@@ -14,37 +32,137 @@ public class GitHubWebhookController {
 
     private static final Logger log = LoggerFactory.getLogger(GitHubWebhookController.class);
 
-    private final GitHubWebhookService webhookService;
-    private final TelegramNotificationService notificationService;
+    private final DeliveryDeduplicator deduplicator;
+    private final PushEventReader pushEventReader;
+    private final NotificationPipeline pipeline;
+    private final RepoRoutingTable routingTable;
+    private final EventJournal journal;
+    private final RepoActivityStats stats;
+    private final MeterRegistry meterRegistry;
+    private final Timer previewTimer;
+    private final Timer parseTimer;
+    // Cached per repo and outcome, so a push does not look its counter up in the registry.
+    private final Map<PushOutcome, Counter> pushCounters = new ConcurrentHashMap<>();
+
+    private record PushOutcome(String repoFullName, String outcome) {}
 
     public GitHubWebhookController(
-            GitHubWebhookService webhookService,
-            TelegramNotificationService notificationService) {
-        this.webhookService = webhookService;
-        this.notificationService = notificationService;
+            DeliveryDeduplicator deduplicator,
+            PushEventReader pushEventReader,
+            NotificationPipeline pipeline,
+            RepoRoutingTable routingTable,
+            EventJournal journal,
+            RepoActivityStats stats,
+            MeterRegistry meterRegistry) {
+        this.deduplicator = deduplicator;
+        this.pushEventReader = pushEventReader;
+        this.pipeline = pipeline;
+        this.routingTable = routingTable;
+        this.journal = journal;
+        this.stats = stats;
+        this.meterRegistry = meterRegistry;
+        this.previewTimer = parseTimer(meterRegistry, "preview");
+        this.parseTimer = parseTimer(meterRegistry, "full");
     }
 
     @PostMapping("/webhook")
     public ResponseEntity<String> handleWebhook(
             @RequestHeader("X-GitHub-Event") String event,
-            @RequestBody PushEvent pushEvent) {
+            @RequestHeader(value = "X-GitHub-Delivery", required = false) String deliveryId,
+            HttpServletRequest request) {
 
         if (!"push".equals(event)) {
             log.info("Ignoring non-push event: {}", event);
             return ResponseEntity.ok("Event ignored");
         }
 
-        String branch = pushEvent.ref().replace("refs/heads/", "");
-        String defaultBranch = pushEvent.repository().defaultBranch();
-        if (!branch.equals(defaultBranch)) {
-            log.info("Ignoring push to non-default branch: {}", branch);
-            return ResponseEntity.ok("Non-default branch ignored");
+        if (!deduplicator.claimDelivery(deliveryId)) {
+            log.info("Ignoring duplicate delivery {}", deliveryId);
+            return ResponseEntity.ok("Duplicate delivery");
+        }
+
+        // The filter has read, size-capped and verified the body; never fall back to an unverified read.
+        if (!(request.getAttribute(WebhookSignatureFilter.BODY_ATTRIBUTE) instanceof CachedBody body)) {
+            log.error("Webhook body was not captured by WebhookSignatureFilter, rejecting delivery {}", deliveryId);
+            deduplicator.release(deliveryId, null, null, null);
+            return ResponseEntity.internalServerError().body("Body not verified");
+        }
+
+        // The body is already buffered and its HMAC checked; routing is decided from a
+        // preview so only deliveries that notify are fully parsed.
+        PushEventReader.Preview preview;
+        long start = System.nanoTime();
+        try {
+            preview = pushEventReader.preview(body.data(), 0, body.length());
+            previewTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (JacksonException | IllegalArgumentException e) {
+            log.warn("Malformed push payload: {}", e.getMessage());
+            deduplicator.release(deliveryId, null, null, null);
+            return ResponseEntity.badRequest().body("Malformed payload");
+        }
+        if (preview.ref() == null || preview.repoFullName() == null) {
+            deduplicator.release(deliveryId, null, null, null);
+            return ResponseEntity.badRequest().body("Malformed payload");
+        }
+
+        // Pushes that are not parsed are journaled as their verified body, so a
+        // replay after mapping the repo or widening its filter can still decode them.
+        String repoFullName = preview.repoFullName();
+        Optional<Route> route = routingTable.find(repoFullName);
+        if (route.isEmpty()) {
+            log.warn("No topic mapping found for repo: {}", repoFullName);
+            journal.appendRaw(deliveryId, repoFullName, body.data(), body.length());
+            return ResponseEntity.ok("Repository not mapped");
+        }
+
+        if (!route.get().branchFilter().matches(preview.ref(), preview.defaultBranch())) {
+            log.info("Ignoring push to filtered branch: {}", preview.ref());
+            journal.appendRaw(deliveryId, repoFullName, body.data(), body.length());
+            countPush(repoFullName, "filtered");
+            return ResponseEntity.ok("Branch ignored");
+        }
+
+        PushEvent pushEvent;
+        start = System.nanoTime();
+        try {
+            pushEvent = pushEventReader.read(body.data(), 0, body.length());
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (JacksonException | IllegalArgumentException e) {
+            log.warn("Malformed push payload: {}", e.getMessage());
+            deduplicator.release(deliveryId, null, null, null);
+            return ResponseEntity.badRequest().body("Malformed payload");
+        }
+
+        if (!deduplicator.claimPush(repoFullName, pushEvent.ref(), pushEvent.after())) {
+            log.info("Ignoring duplicate push of {} to {} {}", pushEvent.after(), repoFullName, pushEvent.ref());
+            countPush(repoFullName, "duplicate");
+            return ResponseEntity.ok("Duplicate push");
         }
 
-        String repoFullName = pushEvent.repository().fullName();
-        String message = webhookService.formatPushMessage(pushEvent);
-        notificationService.sendMessageToRepo(repoFullName, message);
-        log.info("Push event processed for {}", repoFullName);
-        return ResponseEntity.ok("Notification sent");
+        // Journaled even if it is not saved; replay resubmits GitHub's retry of it only once.
+        journal.append(deliveryId, pushEvent);
+        // Acknowledged only once the push is committed, so a crash after the 202 cannot lose it.
+        if (!pipeline.submit(route.get(), pushEvent)) {
+            log.warn("Could not save push event for {}, rejecting it", repoFullName);
+            deduplicator.release(deliveryId, repoFullName, pushEvent.ref(), pushEvent.after());
+            countPush(repoFullName, "rejected");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Notification queue unavailable");
+        }
+        stats.record(pushEvent);
+        log.info("Push event queued for {}", repoFullName);
+        countPush(repoFullName, "queued");
+        return ResponseEntity.accepted().body("Notification queued");
+    }
+
+    private void countPush(String repoFullName, String outcome) {
+        pushCounters.computeIfAbsent(new PushOutcome(repoFullName, outcome), key -> meterRegistry.counter(
+                "github.push.events", "repo", key.repoFullName(), "outcome", key.outcome())).increment();
+    }
+
+    private static Timer parseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("github.webhook.parse")
+                .description("Push payload parse time")
+                .tag("phase", phase)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,84 @@
+package uz.sonic.githubbot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import uz.sonic.githubbot.config.AdminUpdatesProperties;
+import uz.sonic.githubbot.config.AdminUpdatesProperties.Mode;
+import uz.sonic.githubbot.service.AdminBotService;
+import uz.sonic.githubbot.service.LeaderLeaseService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Receives admin bot updates pushed by Telegram in webhook mode. Registered in
+ * every mode, since an AOT build fixes bean conditions at build time, and
+ * answers 404 unless the admin bot runs in webhook mode.
+ * <p>
+ * Only the lease holder handles updates, as in polling mode: admin commands
+ * change routes and conversation state held in its memory. Other instances
+ * answer 503 and Telegram redelivers the update, reaching the holder through
+ * the load balancer.
+ */
+@RestController
+@RequestMapping("/api/telegram")
+public class TelegramWebhookController {
+
+    private static final Logger log = LoggerFactory.getLogger(TelegramWebhookController.class);
+
+    // telegrambots types carry Jackson 2 annotations, so they are read with the library's mapper.
+    private static final ObjectMapper UPDATE_MAPPER = new ObjectMapper();
+
+    private final AdminBotService adminBotService;
+    private final AdminUpdatesProperties properties;
+    private final LeaderLeaseService leaderLease;
+    private final byte[] secretToken;
+
+    public TelegramWebhookController(AdminBotService adminBotService, AdminUpdatesProperties properties,
+                                     LeaderLeaseService leaderLease) {
+        this.adminBotService = adminBotService;
+        this.properties = properties;
+        this.leaderLease = leaderLease;
+        this.secretToken = properties.secretToken() == null
+                ? new byte[0]
+                : properties.secretToken().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping("/webhook")
+    public ResponseEntity<String> handleUpdate(
+            @RequestHeader(value = "X-Telegram-Bot-Api-Secret-Token", required = false) String token,
+            @RequestBody byte[] body) {
+
+        if (properties.mode() != Mode.WEBHOOK) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (token == null || !MessageDigest.isEqual(secretToken, token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected Telegram update with invalid secret token");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Invalid secret token");
+        }
+
+        if (!leaderLease.isLeader()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Not the lease holder");
+        }
+
+        Update update;
+        try {
+            update = UPDATE_MAPPER.readValue(body, Update.class);
+        } catch (IOException e) {
+            log.warn("Malformed Telegram update: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Malformed update");
+        }
+
+        // Handled on the conversation lanes; Telegram only needs a quick 2xx.
+        adminBotService.consume(List.of(update));
+        return ResponseEntity.ok("OK");
+    }
+}
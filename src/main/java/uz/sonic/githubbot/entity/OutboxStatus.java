@@ -0,0 +1,6 @@
+package uz.sonic.githubbot.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    DEAD
+}
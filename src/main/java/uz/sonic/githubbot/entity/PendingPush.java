@@ -0,0 +1,72 @@
+package uz.sonic.githubbot.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A verified push saved before the webhook is acknowledged and deleted once
+ * its notification is in the outbox.
+ */
+@Entity
+@Table(name = "pending_push", indexes = {
+        @Index(name = "idx_pending_push_topic", columnList = "topicId, id")
+})
+public class PendingPush {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer topicId;
+
+    @Column(nullable = false)
+    private String repoFullName;
+
+    @Column(nullable = false, length = 1024)
+    private String ref;
+
+    @Column(nullable = false)
+    private Instant receivedAt;
+
+    // The push in PushEventCodec's binary form.
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload;
+
+    public PendingPush() {
+    }
+
+    public PendingPush(Integer topicId, String repoFullName, String ref, Instant receivedAt, byte[] payload) {
+        this.topicId = topicId;
+        this.repoFullName = repoFullName;
+        this.ref = ref;
+        this.receivedAt = receivedAt;
+        this.payload = payload;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getTopicId() {
+        return topicId;
+    }
+
+    public String getRepoFullName() {
+        return repoFullName;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
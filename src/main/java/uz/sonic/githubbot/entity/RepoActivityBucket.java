@@ -0,0 +1,100 @@
+package uz.sonic.githubbot.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One hour of push activity for a repo as counted by one instance.
+ * {@code pushers} holds {@code login<TAB>count} lines and {@code authors}
+ * the serialised distinct-author sketch.
+ */
+@Entity
+@Table(name = "repo_activity_bucket",
+        uniqueConstraints = @UniqueConstraint(name = "uk_activity_repo_instance_start",
+                columnNames = {"repoFullName", "instanceId", "bucketStart"}),
+        indexes = @Index(name = "idx_activity_bucket_start", columnList = "bucketStart"))
+public class RepoActivityBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String repoFullName;
+
+    @Column(nullable = false, length = 64)
+    private String instanceId;
+
+    @Column(nullable = false)
+    private Instant bucketStart;
+
+    @Column(nullable = false)
+    private long pushes;
+
+    @Column(nullable = false)
+    private long commits;
+
+    @Column(length = 8192)
+    private String pushers;
+
+    @Column(length = 1024)
+    private byte[] authors;
+
+    protected RepoActivityBucket() {
+    }
+
+    public RepoActivityBucket(String repoFullName, String instanceId, Instant bucketStart) {
+        this.repoFullName = repoFullName;
+        this.instanceId = instanceId;
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRepoFullName() {
+        return repoFullName;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getPushes() {
+        return pushes;
+    }
+
+    public void setPushes(long pushes) {
+        this.pushes = pushes;
+    }
+
+    public long getCommits() {
+        return commits;
+    }
+
+    public void setCommits(long commits) {
+        this.commits = commits;
+    }
+
+    public String getPushers() {
+        return pushers;
+    }
+
+    public void setPushers(String pushers) {
+        this.pushers = pushers;
+    }
+
+    public byte[] getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(byte[] authors) {
+        this.authors = authors;
+    }
+}
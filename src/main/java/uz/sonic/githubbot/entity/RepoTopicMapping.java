@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "repo_topic_mapping")
 public class RepoTopicMapping {
 
+    public static final int MAX_BRANCH_RULES_LENGTH = 1024;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -16,6 +18,16 @@ public class RepoTopicMapping {
     @Column(nullable = false)
     private Integer topicId;
 
+    private Integer coalesceWindowSeconds;
+
+    private Integer coalesceMaxBatch;
+
+    @Column(length = MAX_BRANCH_RULES_LENGTH)
+    private String branchRules;
+
+    @Column(length = 2048)
+    private String messageTemplate;
+
     public RepoTopicMapping() {
     }
 
@@ -43,4 +55,36 @@ public class RepoTopicMapping {
     public void setTopicId(Integer topicId) {
         this.topicId = topicId;
     }
+
+    public Integer getCoalesceWindowSeconds() {
+        return coalesceWindowSeconds;
+    }
+
+    public void setCoalesceWindowSeconds(Integer coalesceWindowSeconds) {
+        this.coalesceWindowSeconds = coalesceWindowSeconds;
+    }
+
+    public Integer getCoalesceMaxBatch() {
+        return coalesceMaxBatch;
+    }
+
+    public void setCoalesceMaxBatch(Integer coalesceMaxBatch) {
+        this.coalesceMaxBatch = coalesceMaxBatch;
+    }
+
+    public String getBranchRules() {
+        return branchRules;
+    }
+
+    public void setBranchRules(String branchRules) {
+        this.branchRules = branchRules;
+    }
+
+    public String getMessageTemplate() {
+        return messageTemplate;
+    }
+
+    public void setMessageTemplate(String messageTemplate) {
+        this.messageTemplate = messageTemplate;
+    }
 }
@@ -1,5 +1,8 @@
 package uz.sonic.githubbot.filter;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
@@ -9,18 +12,51 @@ import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import uz.sonic.githubbot.service.GitHubWebhookService;
+import uz.sonic.githubbot.config.GitHubWebhookProperties;
+import uz.sonic.githubbot.service.WebhookSignatureVerifier;
+import uz.sonic.githubbot.util.ByteArrayPool;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class WebhookSignatureFilter extends OncePerRequestFilter {
 
-    private final GitHubWebhookService webhookService;
+    public static final String BODY_ATTRIBUTE = WebhookSignatureFilter.class.getName() + ".body";
 
-    public WebhookSignatureFilter(GitHubWebhookService webhookService) {
-        this.webhookService = webhookService;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 32;
+    // Starting size of an unpooled buffer for a body without Content-Length.
+    private static final int CHUNKED_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Verified request body; {@code data} may be longer than {@code length}.
+     */
+    public record CachedBody(byte[] data, int length) {}
+
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final Set<String> subscribedEvents;
+    private final long maxPayloadSize;
+    private final ByteArrayPool bufferPool = new ByteArrayPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final MeterRegistry meterRegistry;
+    private final Counter signatureFailures;
+    private final Map<RequestOutcome, Timer> requestTimers = new ConcurrentHashMap<>();
+
+    private record RequestOutcome(String event, int status) {}
+
+    public WebhookSignatureFilter(WebhookSignatureVerifier signatureVerifier, GitHubWebhookProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.signatureVerifier = signatureVerifier;
+        this.subscribedEvents = Set.copyOf(properties.events());
+        this.maxPayloadSize = properties.maxPayloadSize().toBytes();
+        this.meterRegistry = meterRegistry;
+        this.signatureFailures = Counter.builder("github.webhook.signature.failures")
+                .description("Webhook deliveries rejected for an invalid signature")
+                .register(meterRegistry);
     }
 
     @Override
@@ -31,41 +67,144 @@ public class WebhookSignatureFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        byte[] body = request.getInputStream().readAllBytes();
-        String signature = request.getHeader("X-Hub-Signature-256");
+        String event = request.getHeader("X-GitHub-Event");
+        if (event == null || !subscribedEvents.contains(event)) {
+            // Nothing to do for this event type, so skip reading and verifying the body.
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType("text/plain");
+            response.getWriter().write("Event ignored");
+            return;
+        }
+
+        // End-to-end latency: body read, signature check and the controller.
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            filterVerified(request, response, filterChain);
+        } finally {
+            sample.stop(requestTimers.computeIfAbsent(new RequestOutcome(event, response.getStatus()),
+                    key -> Timer.builder("github.webhook.requests")
+                            .description("Webhook handling time from first body byte to response")
+                            .tag("event", key.event())
+                            .tag("status", Integer.toString(key.status()))
+                            .register(meterRegistry)));
+        }
+    }
 
-        if (!webhookService.isValidSignature(body, signature)) {
-            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid signature");
+    private void filterVerified(HttpServletRequest request, HttpServletResponse response,
+                                FilterChain filterChain) throws ServletException, IOException {
+        if (request.getContentLengthLong() > maxPayloadSize) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Payload too large");
             return;
         }
 
-        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+        byte[] pooled = bufferPool.acquire();
+        try {
+            byte[] buffer = pooled != null ? pooled : unpooledBuffer(request.getContentLengthLong());
+            int length = 0;
+            WebhookSignatureVerifier.Session session = signatureVerifier.begin();
+            InputStream in = request.getInputStream();
+            int n;
+            while ((n = in.read(buffer, length, buffer.length - length)) != -1) {
+                session.update(buffer, length, n);
+                length += n;
+                if (length > maxPayloadSize) {
+                    session.discard();
+                    response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Payload too large");
+                    return;
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(maxPayloadSize + 1, buffer.length * 2L));
+                }
+            }
+
+            if (!session.verify(request.getHeader("X-Hub-Signature-256"))) {
+                signatureFailures.increment();
+                response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid signature");
+                return;
+            }
+
+            CachedBody body = new CachedBody(buffer, length);
+            request.setAttribute(BODY_ATTRIBUTE, body);
+            filterChain.doFilter(new CachedBodyRequest(request, body), response);
+        } finally {
+            request.removeAttribute(BODY_ATTRIBUTE);
+            if (pooled != null) {
+                bufferPool.release(pooled);
+            }
+        }
+    }
+
+    /**
+     * Sized for the declared body plus the byte that lets the read loop see
+     * end of stream without growing; only a chunked body starts small and grows.
+     */
+    private byte[] unpooledBuffer(long contentLength) {
+        if (contentLength < 0) {
+            return new byte[(int) Math.min(maxPayloadSize + 1, CHUNKED_BUFFER_SIZE)];
+        }
+        return new byte[(int) Math.min(maxPayloadSize + 1, contentLength + 1)];
     }
 
     private static class CachedBodyRequest extends HttpServletRequestWrapper {
-        private final byte[] body;
+        private final CachedBody body;
 
-        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+        CachedBodyRequest(HttpServletRequest request, CachedBody body) {
             super(request);
             this.body = body;
         }
 
         @Override
         public ServletInputStream getInputStream() {
-            ByteArrayInputStream byteStream = new ByteArrayInputStream(body);
-            return new ServletInputStream() {
-                @Override
-                public boolean isFinished() { return byteStream.available() == 0; }
+            return new CachedBodyInputStream(body);
+        }
+    }
 
-                @Override
-                public boolean isReady() { return true; }
+    private static class CachedBodyInputStream extends ServletInputStream {
+        private final byte[] data;
+        private final int length;
+        private int position;
 
-                @Override
-                public void setReadListener(ReadListener readListener) { }
+        CachedBodyInputStream(CachedBody body) {
+            this.data = body.data();
+            this.length = body.length();
+        }
+
+        @Override
+        public boolean isFinished() { return position >= length; }
+
+        @Override
+        public boolean isReady() { return true; }
+
+        @Override
+        public void setReadListener(ReadListener readListener) { }
+
+        @Override
+        public int read() {
+            return position < length ? data[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= length) {
+                return -1;
+            }
+            int n = Math.min(len, length - position);
+            System.arraycopy(data, position, b, off, n);
+            position += n;
+            return n;
+        }
 
-                @Override
-                public int read() { return byteStream.read(); }
-            };
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, length - position));
+            position += (int) skipped;
+            return skipped;
         }
+
+        @Override
+        public int available() { return length - position; }
     }
 }
@@ -7,8 +7,18 @@ import java.util.List;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record PushEvent(
         String ref,
+        String before,
+        String after,
         String compare,
         List<Commit> commits,
+        int totalCommits,
         Repository repository,
         Pusher pusher
-) {}
+) {
+    /**
+     * Number of commits in the push; {@link #commits()} may hold only the first few.
+     */
+    public int commitCount() {
+        return Math.max(totalCommits, commits.size());
+    }
+}
@@ -0,0 +1,41 @@
+package uz.sonic.githubbot.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import uz.sonic.githubbot.entity.LeaderLease;
+
+import java.time.Instant;
+
+public interface LeaderLeaseRepository extends JpaRepository<LeaderLease, String> {
+
+    /**
+     * Renews the lease for its owner or takes it over once expired.
+     *
+     * @return 1 if {@code owner} now holds the lease
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update LeaderLease l set l.owner = :owner, l.expiresAt = :expiresAt
+            where l.name = :name and (l.owner = :owner or l.expiresAt < :now)""")
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+                   @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    /**
+     * Creates the lease row; fails with a constraint violation if another
+     * instance created it first.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into leader_lease (name, owner, expires_at) values (:name, :owner, :expiresAt)",
+            nativeQuery = true)
+    void create(@Param("name") String name, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update LeaderLease l set l.expiresAt = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+}
@@ -0,0 +1,105 @@
+package uz.sonic.githubbot.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import uz.sonic.githubbot.entity.NotificationOutboxEntry;
+import uz.sonic.githubbot.entity.OutboxStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, Long> {
+
+    /**
+     * Unclaimed pending entries that are due and not queued behind an earlier
+     * pending entry of their topic that is backing off or being sent.
+     */
+    @Query("""
+            select e from NotificationOutboxEntry e
+            where e.status = uz.sonic.githubbot.entity.OutboxStatus.PENDING
+            and e.claimedBy is null and e.nextAttemptAt <= :now
+            and not exists (select b from NotificationOutboxEntry b
+                where b.topicId = e.topicId and b.id < e.id
+                and b.status = uz.sonic.githubbot.entity.OutboxStatus.PENDING
+                and (b.nextAttemptAt > :now or b.claimedBy is not null))
+            order by e.id""")
+    List<NotificationOutboxEntry> findDue(@Param("now") Instant now, Limit limit);
+
+    /**
+     * {@link #findDue} without the topics in {@code excludedTopicIds}.
+     */
+    @Query("""
+            select e from NotificationOutboxEntry e
+            where e.status = uz.sonic.githubbot.entity.OutboxStatus.PENDING
+            and e.claimedBy is null and e.nextAttemptAt <= :now
+            and e.topicId not in :excludedTopicIds
+            and not exists (select b from NotificationOutboxEntry b
+                where b.topicId = e.topicId and b.id < e.id
+                and b.status = uz.sonic.githubbot.entity.OutboxStatus.PENDING
+                and (b.nextAttemptAt > :now or b.claimedBy is not null))
+            order by e.id""")
+    List<NotificationOutboxEntry> findDueExcludingTopics(@Param("now") Instant now,
+                                                         @Param("excludedTopicIds") Collection<Integer> excludedTopicIds,
+                                                         Limit limit);
+
+    List<NotificationOutboxEntry> findByClaimedByAndIdInOrderByIdAsc(String claimedBy, Collection<Long> ids);
+
+    /**
+     * Claims unclaimed pending entries for {@code owner}.
+     *
+     * @return the number of entries claimed
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update NotificationOutboxEntry e set e.claimedBy = :owner
+            where e.id in :ids and e.claimedBy is null
+            and e.status = uz.sonic.githubbot.entity.OutboxStatus.PENDING""")
+    int claim(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("update NotificationOutboxEntry e set e.claimedBy = null where e.claimedBy = :owner")
+    int releaseClaims(@Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("update NotificationOutboxEntry e set e.claimedBy = null where e.id in :ids and e.claimedBy = :owner")
+    int releaseClaims(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("update NotificationOutboxEntry e set e.claimedBy = null where e.claimedBy is not null")
+    int releaseAllClaims();
+
+    /**
+     * Records a failed send and releases the claim, if {@code owner} still holds it.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update NotificationOutboxEntry e
+            set e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt,
+                e.lastError = :lastError, e.claimedBy = null
+            where e.id = :id and e.claimedBy = :owner""")
+    int recordFailure(@Param("id") Long id, @Param("owner") String owner, @Param("status") OutboxStatus status,
+                      @Param("attempts") int attempts, @Param("nextAttemptAt") Instant nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    List<NotificationOutboxEntry> findByStatusOrderByIdDesc(OutboxStatus status, Limit limit);
+
+    long countByStatus(OutboxStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update NotificationOutboxEntry e
+            set e.status = uz.sonic.githubbot.entity.OutboxStatus.PENDING, e.attempts = 0, e.nextAttemptAt = :now
+            where e.status = uz.sonic.githubbot.entity.OutboxStatus.DEAD""")
+    int requeueAllDead(@Param("now") Instant now);
+}
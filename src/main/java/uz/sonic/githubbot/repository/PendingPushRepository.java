@@ -0,0 +1,28 @@
+package uz.sonic.githubbot.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import uz.sonic.githubbot.entity.PendingPush;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingPushRepository extends JpaRepository<PendingPush, Long> {
+
+    @Query("select distinct p.topicId from PendingPush p")
+    List<Integer> findTopicIds();
+
+    List<PendingPush> findByTopicIdOrderByIdAsc(Integer topicId, Limit limit);
+
+    /**
+     * @return the number of pushes deleted, fewer if another instance already consumed some
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from PendingPush p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
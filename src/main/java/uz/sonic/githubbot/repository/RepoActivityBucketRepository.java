@@ -0,0 +1,26 @@
+package uz.sonic.githubbot.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import uz.sonic.githubbot.entity.RepoActivityBucket;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RepoActivityBucketRepository extends JpaRepository<RepoActivityBucket, Long> {
+
+    List<RepoActivityBucket> findByInstanceIdAndBucketStartGreaterThanEqual(String instanceId, Instant from);
+
+    List<RepoActivityBucket> findByInstanceIdNotAndBucketStartGreaterThanEqual(String instanceId, Instant from);
+
+    List<RepoActivityBucket> findByInstanceIdNotAndRepoFullNameAndBucketStartGreaterThanEqual(
+            String instanceId, String repoFullName, Instant from);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RepoActivityBucket b where b.bucketStart < :before")
+    int deleteOlderThan(@Param("before") Instant before);
+}
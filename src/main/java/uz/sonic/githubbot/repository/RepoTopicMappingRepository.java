@@ -1,17 +1,36 @@
 package uz.sonic.githubbot.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 import uz.sonic.githubbot.entity.RepoTopicMapping;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RepoTopicMappingRepository extends JpaRepository<RepoTopicMapping, Long> {
 
     Optional<RepoTopicMapping> findByRepoFullName(String repoFullName);
 
-    boolean existsByRepoFullName(String repoFullName);
+    boolean existsByRepoFullNameIgnoreCase(String repoFullName);
+
+    /**
+     * @param lowerCaseNames repo names in lower case
+     */
+    @Query("select m from RepoTopicMapping m where lower(m.repoFullName) in :names")
+    List<RepoTopicMapping> findByLowerCaseRepoFullNameIn(@Param("names") Collection<String> lowerCaseNames);
 
     @Transactional
     void deleteByRepoFullName(String repoFullName);
+
+    /** Keyset page: mappings after the given id whose name starts with the prefix. */
+    List<RepoTopicMapping> findByRepoFullNameStartingWithAndIdGreaterThanOrderByIdAsc(
+            String prefix, Long afterId, Limit limit);
+
+    /** Keyset page backwards: mappings before the given id, newest first. */
+    List<RepoTopicMapping> findByRepoFullNameStartingWithAndIdLessThanOrderByIdDesc(
+            String prefix, Long beforeId, Limit limit);
 }
@@ -1,16 +1,23 @@
 package uz.sonic.githubbot.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PreDestroy;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.longpolling.TelegramBotsLongPollingApplication;
-import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateConsumer;
+import org.telegram.telegrambots.longpolling.interfaces.LongPollingUpdateConsumer;
+import org.telegram.telegrambots.longpolling.util.DefaultGetUpdatesGenerator;
+import org.telegram.telegrambots.meta.TelegramUrl;
 import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updates.DeleteWebhook;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Update;
@@ -21,70 +28,281 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKe
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardRow;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
+import uz.sonic.githubbot.config.AdminUpdatesProperties;
+import uz.sonic.githubbot.config.AdminUpdatesProperties.Mode;
+import uz.sonic.githubbot.config.TelegramHttpProperties;
+import uz.sonic.githubbot.entity.NotificationOutboxEntry;
+import uz.sonic.githubbot.entity.OutboxStatus;
 import uz.sonic.githubbot.entity.RepoTopicMapping;
+import uz.sonic.githubbot.model.Commit;
 import uz.sonic.githubbot.repository.RepoTopicMappingRepository;
+import uz.sonic.githubbot.service.RepoRoutingTable.Route;
+import uz.sonic.githubbot.service.TelegramOutboundScheduler.Priority;
+import uz.sonic.githubbot.util.BranchFilter;
+import uz.sonic.githubbot.util.ConversationStateStore;
+import uz.sonic.githubbot.util.KeyedSerialExecutor;
+import uz.sonic.githubbot.util.MarkdownV2Builder;
+import uz.sonic.githubbot.util.MessageTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static uz.sonic.githubbot.util.MarkdownV2Utils.*;
 
+/**
+ * Admin bot, receiving updates over long polling or, in webhook mode, from
+ * {@code TelegramWebhookController}. Updates are handled concurrently on
+ * virtual threads, but updates from the same admin in the same chat are
+ * handled one at a time in the order Telegram delivered them, so one admin's
+ * slow command does not hold up the others.
+ */
 @Service
-public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
+public class AdminBotService implements LongPollingUpdateConsumer {
+
+    private enum PendingInput {
+        REPO_NAME
+    }
+
+    private static final int PAGE_SIZE = 10;
+    // Telegram limits callback data to 64 bytes of UTF-8; the prefix gets what the longest cursor leaves.
+    private static final int MAX_PREFIX_BYTES = 64 - pageData("r", 'n', Long.MAX_VALUE, "").length();
+
+    // Confirms a /addrepos run that creates more than RepoOnboardingService.CONFIRM_ABOVE topics.
+    private static final String CONFIRM_TOKEN = "confirm";
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(3);
+    private static final int MAX_REPORT_LINES = 20;
+
+    private record RepoPage(List<RepoTopicMapping> items, boolean hasPrev, boolean hasNext) {}
+
+    // A conversation is one admin in one chat; the user is 0 when Telegram does not say.
+    private record Conversation(long chatId, long userId) {}
 
     private static final Logger log = LoggerFactory.getLogger(AdminBotService.class);
 
     private final String botToken;
     private final String adminChatId;
-    private final TelegramClient telegramClient;
+    private final TelegramOutboundScheduler scheduler;
     private final TelegramNotificationService notificationService;
     private final RepoTopicMappingRepository repository;
+    private final RepoRoutingTable routingTable;
+    private final NotificationOutbox outbox;
+    private final RepoOnboardingService onboardingService;
+    private final EventJournal journal;
+    private final RepoActivityStats stats;
+    private final OkHttpClient pollingHttpClient;
+    private final TelegramUrl telegramUrl;
+    private final TelegramClient telegramClient;
+    private final AdminUpdatesProperties updatesProperties;
+    private final LeaderLeaseService leaderLease;
     private TelegramBotsLongPollingApplication longPollingApp;
+    private ScheduledExecutorService pollingExecutor;
+    private boolean webhookRegistered;
 
-    private final Map<Long, Boolean> waitingForRepoName = new ConcurrentHashMap<>();
+    private final ExecutorService updateWorkers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("admin-update-", 0).factory());
+    private final KeyedSerialExecutor<Conversation> conversationLanes = new KeyedSerialExecutor<>(updateWorkers);
+    private final ConversationStateStore<Conversation, PendingInput> pendingInput;
+    private final AtomicBoolean onboardingRunning = new AtomicBoolean();
+    private final AtomicBoolean replayRunning = new AtomicBoolean();
 
     public AdminBotService(
             @Value("${telegram.bot.token}") String botToken,
             @Value("${telegram.admin-chat-id}") String adminChatId,
-            TelegramClient telegramClient,
+            @Value("${telegram.admin.conversation-ttl}") Duration conversationTtl,
+            TelegramOutboundScheduler scheduler,
             TelegramNotificationService notificationService,
-            RepoTopicMappingRepository repository) {
+            RepoTopicMappingRepository repository,
+            RepoRoutingTable routingTable,
+            NotificationOutbox outbox,
+            RepoOnboardingService onboardingService,
+            EventJournal journal,
+            RepoActivityStats stats,
+            OkHttpClient telegramHttpClient,
+            TelegramHttpProperties httpProperties,
+            TelegramUrl telegramUrl,
+            TelegramClient telegramClient,
+            AdminUpdatesProperties updatesProperties,
+            LeaderLeaseService leaderLease) {
+        if (updatesProperties.mode() == Mode.WEBHOOK && (updatesProperties.webhookUrl() == null
+                || updatesProperties.secretToken() == null || updatesProperties.secretToken().isBlank())) {
+            throw new IllegalStateException(
+                    "telegram.admin.updates.webhook-url and secret-token are required in webhook mode");
+        }
         this.botToken = botToken;
         this.adminChatId = adminChatId;
-        this.telegramClient = telegramClient;
+        this.scheduler = scheduler;
         this.notificationService = notificationService;
         this.repository = repository;
+        this.routingTable = routingTable;
+        this.outbox = outbox;
+        this.onboardingService = onboardingService;
+        this.journal = journal;
+        this.stats = stats;
+        this.telegramUrl = telegramUrl;
+        this.telegramClient = telegramClient;
+        this.updatesProperties = updatesProperties;
+        this.leaderLease = leaderLease;
+        // Same pool and dispatcher as outgoing sends, but getUpdates holds the call open.
+        this.pollingHttpClient = telegramHttpClient.newBuilder()
+                .readTimeout(httpProperties.pollingReadTimeout())
+                .callTimeout(httpProperties.pollingReadTimeout().plus(httpProperties.connectTimeout()))
+                .build();
+        this.pendingInput = new ConversationStateStore<>(conversationTtl);
+    }
+
+    /**
+     * Telegram allows a single getUpdates poller per token, so only the lease
+     * holder polls. In webhook mode the lease holder registers the webhook and
+     * leaves it in place on step-down for the next holder.
+     */
+    @EventListener
+    public synchronized void onLeadershipChanged(LeaderLeaseService.LeadershipChanged event) {
+        if (updatesProperties.mode() == Mode.WEBHOOK) {
+            webhookRegistered = false;
+            if (event.leader()) {
+                registerWebhook();
+            }
+        } else if (event.leader()) {
+            startPolling();
+        } else {
+            stopPolling();
+        }
+    }
+
+    /**
+     * Retries a webhook registration or polling start that failed when the
+     * lease was acquired; both are no-ops once they succeeded.
+     */
+    @EventListener
+    public synchronized void onLeaseRenewed(LeaderLeaseService.LeaseRenewed event) {
+        if (updatesProperties.mode() == Mode.WEBHOOK) {
+            if (!webhookRegistered) {
+                registerWebhook();
+            }
+        } else {
+            startPolling();
+        }
+    }
+
+    private void registerWebhook() {
+        SetWebhook setWebhook = SetWebhook.builder()
+                .url(updatesProperties.webhookUrl().toString())
+                .secretToken(updatesProperties.secretToken())
+                .maxConnections(updatesProperties.maxConnections())
+                .allowedUpdates(List.of("message", "callback_query"))
+                .build();
+        try {
+            telegramClient.execute(setWebhook);
+            webhookRegistered = true;
+            log.info("Admin bot webhook registered at {}", updatesProperties.webhookUrl());
+        } catch (TelegramApiException e) {
+            log.error("Failed to register admin bot webhook, retrying on the next lease renewal", e);
+        }
     }
 
-    @EventListener(ApplicationReadyEvent.class)
-    public void start() {
+    private void deleteWebhook() {
+        try {
+            telegramClient.execute(new DeleteWebhook());
+            log.info("Admin bot webhook deleted");
+        } catch (TelegramApiException e) {
+            log.error("Failed to delete admin bot webhook", e);
+        }
+    }
+
+    private void startPolling() {
+        if (longPollingApp != null) {
+            return;
+        }
+        // The library never shuts down its own executor, which would leak a thread per leadership change.
+        pollingExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("admin-polling").daemon().factory());
         try {
-            longPollingApp = new TelegramBotsLongPollingApplication();
-            longPollingApp.registerBot(botToken, this);
+            longPollingApp = new TelegramBotsLongPollingApplication(
+                    ObjectMapper::new, () -> pollingHttpClient, () -> pollingExecutor);
+            longPollingApp.registerBot(botToken, () -> telegramUrl, new DefaultGetUpdatesGenerator(), this);
             log.info("Admin bot long polling started");
         } catch (TelegramApiException e) {
             log.error("Failed to start admin bot long polling", e);
+            stopPolling();
+        }
+    }
+
+    private void stopPolling() {
+        if (longPollingApp == null) {
+            return;
+        }
+        try {
+            longPollingApp.close();
+            log.info("Admin bot long polling stopped");
+        } catch (Exception e) {
+            log.error("Error stopping admin bot long polling", e);
         }
+        pollingExecutor.shutdownNow();
+        longPollingApp = null;
+        pollingExecutor = null;
     }
 
     @PreDestroy
     public void stop() {
-        if (longPollingApp != null) {
-            try {
-                longPollingApp.close();
-                log.info("Admin bot long polling stopped");
-            } catch (Exception e) {
-                log.error("Error stopping admin bot long polling", e);
+        synchronized (this) {
+            stopPolling();
+            // Runs before the lease is released, so a new holder's registration is not undone.
+            if (updatesProperties.mode() == Mode.WEBHOOK && leaderLease.isLeader()) {
+                deleteWebhook();
+            }
+        }
+        updateWorkers.shutdown();
+        try {
+            if (!updateWorkers.awaitTermination(10, TimeUnit.SECONDS)) {
+                updateWorkers.shutdownNow();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     @Override
-    public void consume(Update update) {
+    public void consume(List<Update> updates) {
+        for (Update update : updates) {
+            Conversation conversation = conversation(update);
+            conversationLanes.execute(conversation, () -> handleUpdate(update, conversation));
+        }
+    }
+
+    private static Conversation conversation(Update update) {
+        if (update.hasMessage()) {
+            Message message = update.getMessage();
+            return new Conversation(message.getChatId(), message.getFrom() == null ? 0 : message.getFrom().getId());
+        }
+        if (update.hasCallbackQuery()) {
+            CallbackQuery query = update.getCallbackQuery();
+            return new Conversation(query.getMessage() == null ? 0 : query.getMessage().getChatId(),
+                    query.getFrom() == null ? 0 : query.getFrom().getId());
+        }
+        return new Conversation(0, 0);
+    }
+
+    private void handleUpdate(Update update, Conversation conversation) {
         if (update.hasCallbackQuery()) {
-            handleCallback(update.getCallbackQuery());
+            handleCallback(update.getCallbackQuery(), conversation);
             return;
         }
 
@@ -105,15 +323,31 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
         try {
             if (text.equals("/start")) {
                 handleStart(replyTopicId);
+            } else if (text.equals("/addrepos") || text.startsWith("/addrepos ")) {
+                handleBulkAdd(text.substring(9).trim(), replyTopicId);
             } else if (text.startsWith("/addrepo ")) {
                 handleAddRepo(text.substring(9).trim(), replyTopicId);
-            } else if (text.equals("/repos")) {
-                handleListRepos(replyTopicId);
+            } else if (text.equals("/repos") || text.startsWith("/repos ")) {
+                handleListRepos(text.substring(6).trim(), replyTopicId);
             } else if (text.startsWith("/removerepo ")) {
                 handleRemoveRepo(text.substring(12).trim(), replyTopicId);
+            } else if (text.startsWith("/coalesce ")) {
+                handleCoalesce(text.substring(10).trim(), replyTopicId);
+            } else if (text.startsWith("/branches ")) {
+                handleBranches(text.substring(10).trim(), replyTopicId);
+            } else if (text.equals("/template") || text.startsWith("/template ")) {
+                handleTemplate(text.substring(9).trim(), replyTopicId);
+            } else if (text.equals("/replay") || text.startsWith("/replay ")) {
+                handleReplay(text.substring(7).trim(), replyTopicId);
+            } else if (text.equals("/stats") || text.startsWith("/stats ")) {
+                handleStats(text.substring(6).trim(), replyTopicId);
+            } else if (text.equals("/outbox")) {
+                handleOutbox(replyTopicId);
+            } else if (text.startsWith("/requeue ")) {
+                handleRequeue(text.substring(9).trim(), replyTopicId);
             } else if (text.equals("/help")) {
                 handleHelp(replyTopicId);
-            } else if (waitingForRepoName.remove(msg.getChatId()) != null) {
+            } else if (pendingInput.take(conversation) == PendingInput.REPO_NAME) {
                 handleAddRepo(text, replyTopicId);
                 sendMessageWithKeyboard("Asosiy menyu:", buildMainMenu(), replyTopicId);
             }
@@ -127,7 +361,7 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
         sendMessageWithKeyboard("Buyruqni tanlang:", buildMainMenu(), replyTopicId);
     }
 
-    private void handleCallback(CallbackQuery callbackQuery) {
+    private void handleCallback(CallbackQuery callbackQuery, Conversation conversation) {
         if (!(callbackQuery.getMessage() instanceof Message message)) {
             return;
         }
@@ -145,15 +379,17 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
 
             switch (data) {
                 case "add_repo" -> {
-                    waitingForRepoName.put(message.getChatId(), true);
+                    pendingInput.put(conversation, PendingInput.REPO_NAME);
                     editMessage("Repo nomini " + code("owner/repo") + " formatida yuboring:", messageId, null);
                 }
-                case "list_repos" -> handleListReposCallback(messageId);
-                case "remove_repo" -> handleRemoveRepoCallback(messageId);
+                case "list_repos" -> showPage(false, "", true, 0, messageId, null);
+                case "remove_repo" -> showPage(true, "", true, 0, messageId, null);
                 case "cancel_remove" -> editMessage(escape("Bekor qilindi."), messageId, buildMainMenu());
                 case "main_menu" -> editMessage("Buyruqni tanlang:", messageId, buildMainMenu());
                 default -> {
-                    if (data.startsWith("remove:")) {
+                    if (data.startsWith("page:")) {
+                        handlePageCallback(data.substring(5), messageId);
+                    } else if (data.startsWith("remove:")) {
                         handleRemoveConfirmation(data.substring(7), messageId);
                     } else if (data.startsWith("confirm_remove:")) {
                         handleConfirmedRemove(data.substring(15), messageId);
@@ -165,51 +401,127 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
         }
     }
 
-    private void handleListReposCallback(Integer messageId) {
-        List<RepoTopicMapping> mappings = repository.findAll();
-        if (mappings.isEmpty()) {
-            editMessage(escape("Hech qanday repo sozlanmagan."), messageId, buildMainMenu());
+    /**
+     * Callback data is {@code page:<l|r>:<n|p><id>:<prefix>}: list or remove
+     * mode, next page after or previous page before a base-36 mapping id,
+     * and the search prefix.
+     */
+    private void handlePageCallback(String cursor, Integer messageId) {
+        String[] parts = cursor.split(":", 3);
+        if (parts.length != 3 || parts[1].length() < 2) {
             return;
         }
+        long id = Long.parseLong(parts[1].substring(1), Character.MAX_RADIX);
+        showPage(parts[0].equals("r"), parts[2], parts[1].charAt(0) == 'n', id, messageId, null);
+    }
 
-        var sb = new StringBuilder(bold("Sozlangan repolar:")).append("\n\n");
-        for (RepoTopicMapping m : mappings) {
-            sb.append("\\- ").append(code(m.getRepoFullName()))
-                    .append(escape(" (topic " + m.getTopicId() + ")")).append("\n");
+    private RepoPage loadPage(String prefix, boolean forward, long cursorId) {
+        Limit limit = Limit.of(PAGE_SIZE + 1);
+        if (!forward) {
+            List<RepoTopicMapping> before = new ArrayList<>(
+                    repository.findByRepoFullNameStartingWithAndIdLessThanOrderByIdDesc(prefix, cursorId, limit));
+            if (!before.isEmpty()) {
+                boolean hasPrev = before.size() > PAGE_SIZE;
+                List<RepoTopicMapping> items = before.subList(0, Math.min(PAGE_SIZE, before.size())).reversed();
+                return new RepoPage(items, hasPrev, true);
+            }
+            cursorId = 0;
         }
-        editMessage(sb.toString(), messageId, buildMainMenu());
+        List<RepoTopicMapping> after =
+                repository.findByRepoFullNameStartingWithAndIdGreaterThanOrderByIdAsc(prefix, cursorId, limit);
+        return new RepoPage(after.subList(0, Math.min(PAGE_SIZE, after.size())), cursorId > 0,
+                after.size() > PAGE_SIZE);
     }
 
-    private void handleRemoveRepoCallback(Integer messageId) {
-        List<RepoTopicMapping> mappings = repository.findAll();
-        if (mappings.isEmpty()) {
-            editMessage(escape("O'chirish uchun repo yo'q."), messageId, buildMainMenu());
+    /**
+     * Renders one page of mappings, editing {@code messageId} or, when it is
+     * {@code null}, sending a new message to {@code replyTopicId}.
+     */
+    private void showPage(boolean removeMode, String prefix, boolean forward, long cursorId,
+                          Integer messageId, Integer replyTopicId) {
+        RepoPage page = loadPage(prefix, forward, cursorId);
+        if (page.items().isEmpty()) {
+            String text = !prefix.isEmpty()
+                    ? escape("\"" + prefix + "\" bilan boshlanadigan repo topilmadi.")
+                    : escape(removeMode ? "O'chirish uchun repo yo'q." : "Hech qanday repo sozlanmagan.");
+            if (messageId != null) {
+                editMessage(text, messageId, buildMainMenu());
+            } else {
+                sendReply(text, replyTopicId);
+            }
             return;
         }
 
-        var rows = new ArrayList<>(mappings.stream()
-                .map(m -> new InlineKeyboardRow(
-                        InlineKeyboardButton.builder()
-                                .text(m.getRepoFullName())
-                                .callbackData("remove:" + m.getRepoFullName())
-                                .build()))
-                .toList());
-        rows.add(new InlineKeyboardRow(
-                InlineKeyboardButton.builder()
-                        .text("◀️ Ortga")
-                        .callbackData("main_menu")
-                        .build()));
-
+        String mode = removeMode ? "r" : "l";
+        List<InlineKeyboardRow> rows = new ArrayList<>();
+        if (removeMode) {
+            for (RepoTopicMapping m : page.items()) {
+                rows.add(new InlineKeyboardRow(
+                        button(m.getRepoFullName(), "remove:" + Long.toString(m.getId(), Character.MAX_RADIX))));
+            }
+        }
+        InlineKeyboardRow nav = new InlineKeyboardRow();
+        if (page.hasPrev()) {
+            nav.add(button("⬅️", pageData(mode, 'p', page.items().getFirst().getId(), prefix)));
+        }
+        if (page.hasNext()) {
+            nav.add(button("➡️", pageData(mode, 'n', page.items().getLast().getId(), prefix)));
+        }
+        if (!nav.isEmpty()) {
+            rows.add(nav);
+        }
+        if (!removeMode) {
+            rows.add(new InlineKeyboardRow(button("\uD83D\uDDD1 O'chirish", pageData("r", 'n', 0, prefix))));
+        }
+        rows.add(new InlineKeyboardRow(button("◀️ Ortga", "main_menu")));
         InlineKeyboardMarkup keyboard = InlineKeyboardMarkup.builder().keyboard(rows).build();
-        editMessage("O'chirish uchun repo tanlang:", messageId, keyboard);
+
+        String text = removeMode ? escape("O'chirish uchun repo tanlang:") : formatRepoList(page.items());
+        if (!prefix.isEmpty()) {
+            text += escape("\nQidiruv: ") + code(prefix + "*");
+        }
+        if (messageId != null) {
+            editMessage(text, messageId, keyboard);
+        } else {
+            sendMessageWithKeyboard(text, keyboard, replyTopicId);
+        }
+    }
+
+    private static String pageData(String mode, char direction, long id, String prefix) {
+        return "page:" + mode + ":" + direction + Long.toString(id, Character.MAX_RADIX) + ":" + prefix;
+    }
+
+    private static InlineKeyboardButton button(String text, String callbackData) {
+        return InlineKeyboardButton.builder().text(text).callbackData(callbackData).build();
     }
 
-    private void handleRemoveConfirmation(String repoName, Integer messageId) {
+    /**
+     * Resolves a remove callback argument: a base-36 mapping id, or a repo
+     * name from keyboards sent before ids were used.
+     */
+    private Optional<RepoTopicMapping> findForCallback(String arg) {
+        if (arg.indexOf('/') < 0) {
+            try {
+                return repository.findById(Long.parseLong(arg, Character.MAX_RADIX));
+            } catch (NumberFormatException ignored) {
+                // fall through to name lookup
+            }
+        }
+        return repository.findByRepoFullName(arg);
+    }
+
+    private void handleRemoveConfirmation(String arg, Integer messageId) {
+        var mapping = findForCallback(arg);
+        if (mapping.isEmpty()) {
+            editMessage(escape("Repository topilmadi."), messageId, buildMainMenu());
+            return;
+        }
+        String repoName = mapping.get().getRepoFullName();
         InlineKeyboardMarkup keyboard = InlineKeyboardMarkup.builder()
                 .keyboardRow(new InlineKeyboardRow(
                         InlineKeyboardButton.builder()
                                 .text("✅ Ha")
-                                .callbackData("confirm_remove:" + repoName)
+                                .callbackData("confirm_remove:" + Long.toString(mapping.get().getId(), Character.MAX_RADIX))
                                 .build(),
                         InlineKeyboardButton.builder()
                                 .text("❌ Yo'q")
@@ -219,14 +531,15 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
         editMessage(bold(repoName) + escape(" ni o'chirishga ishonchingiz komilmi?"), messageId, keyboard);
     }
 
-    private void handleConfirmedRemove(String repoName, Integer messageId) {
-        var mapping = repository.findByRepoFullName(repoName);
+    private void handleConfirmedRemove(String arg, Integer messageId) {
+        var mapping = findForCallback(arg);
         if (mapping.isEmpty()) {
-            editMessage(escape("Repository " + repoName + " topilmadi."), messageId, buildMainMenu());
+            editMessage(escape("Repository topilmadi."), messageId, buildMainMenu());
             return;
         }
+        String repoName = mapping.get().getRepoFullName();
 
-        repository.deleteByRepoFullName(repoName);
+        routingTable.delete(repoName);
 
         try {
             notificationService.deleteForumTopic(mapping.get().getTopicId());
@@ -246,7 +559,7 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
             return;
         }
 
-        if (repository.existsByRepoFullName(repoFullName)) {
+        if (repository.existsByRepoFullNameIgnoreCase(repoFullName)) {
             sendReply(escape("Repository " + repoFullName + " allaqachon sozlangan."), replyTopicId);
             return;
         }
@@ -255,7 +568,7 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
             String repoName = repoFullName.substring(repoFullName.indexOf('/') + 1);
             ForumTopic topic = notificationService.createForumTopic(repoName);
             RepoTopicMapping mapping = new RepoTopicMapping(repoFullName, topic.getMessageThreadId());
-            repository.save(mapping);
+            routingTable.save(mapping);
             String successMsg = "\u2705 " + bold(repoFullName) + escape(" qo'shildi (topic ID: " + topic.getMessageThreadId() + ")");
             sendReply(successMsg, replyTopicId);
             sendAdminMessage(successMsg);
@@ -266,19 +579,128 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
         }
     }
 
-    private void handleListRepos(Integer replyTopicId) {
-        List<RepoTopicMapping> mappings = repository.findAll();
-        if (mappings.isEmpty()) {
-            sendReply(escape("Hech qanday repo sozlanmagan."), replyTopicId);
+    private void handleBulkAdd(String args, Integer replyTopicId) {
+        List<String> tokens = Arrays.stream(args.split("[\\s,]+")).filter(t -> !t.isEmpty()).toList();
+        boolean confirmed = tokens.contains(CONFIRM_TOKEN);
+        if (confirmed) {
+            tokens = tokens.stream().filter(t -> !t.equals(CONFIRM_TOKEN)).toList();
+        }
+        if (tokens.isEmpty()) {
+            sendReply(escape("Foydalanish: /addrepos owner/repo1 owner/repo2 ... yoki owner/*"), replyTopicId);
+            return;
+        }
+        if (!onboardingRunning.compareAndSet(false, true)) {
+            sendReply(escape("Oldingi ommaviy qo'shish hali tugamagan."), replyTopicId);
             return;
         }
 
-        var sb = new StringBuilder(bold("Sozlangan repolar:")).append("\n\n");
-        for (RepoTopicMapping m : mappings) {
-            sb.append("\\- ").append(code(m.getRepoFullName()))
-                    .append(escape(" (topic " + m.getTopicId() + ")")).append("\n");
+        Integer progressId = sendProgressMessage(escape("\u23F3 Repolar tekshirilmoqda..."), replyTopicId);
+        List<String> repoTokens = tokens;
+        try {
+            // Runs outside the conversation lane so the admin's other commands are not held up.
+            updateWorkers.execute(() -> {
+                try {
+                    runBulkAdd(repoTokens, confirmed, progressId, replyTopicId);
+                } finally {
+                    onboardingRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            onboardingRunning.set(false);
+            throw e;
+        }
+    }
+
+    private void runBulkAdd(List<String> tokens, boolean confirmed, Integer progressId, Integer replyTopicId) {
+        AtomicLong lastEdit = new AtomicLong(System.nanoTime());
+        try {
+            RepoOnboardingService.Result result = onboardingService.onboard(tokens, confirmed, p -> {
+                long now = System.nanoTime();
+                long last = lastEdit.get();
+                if (p.done() < p.total() && now - last >= PROGRESS_INTERVAL_NANOS
+                        && lastEdit.compareAndSet(last, now)) {
+                    updateProgress(escape("\u23F3 Topiclar yaratilmoqda: " + p.done() + "/" + p.total()
+                            + (p.failed() > 0 ? ", xato: " + p.failed() : "")), progressId, replyTopicId);
+                }
+            });
+            if (result.overLimit() > RepoOnboardingService.MAX_TOPICS) {
+                updateProgress(escape("\u26A0\uFE0F " + result.overLimit() + " ta yangi topic kerak, bir martada ko'pi bilan "
+                        + RepoOnboardingService.MAX_TOPICS + " ta yaratiladi. ") + code("owner/prefix*")
+                        + escape(" bilan toraytiring."), progressId, replyTopicId);
+            } else if (result.overLimit() > 0) {
+                updateProgress(escape("\u26A0\uFE0F " + result.overLimit() + " ta yangi topic yaratiladi. Tasdiqlash uchun:")
+                        + "\n" + code("/addrepos " + String.join(" ", tokens) + " " + CONFIRM_TOKEN),
+                        progressId, replyTopicId);
+            } else {
+                updateProgress(formatOnboardingReport(result), progressId, replyTopicId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Bulk onboarding failed", e);
+            updateProgress(escape("Ommaviy qo'shishda xato: " + e.getMessage()), progressId, replyTopicId);
+        }
+    }
+
+    private String formatOnboardingReport(RepoOnboardingService.Result result) {
+        var md = new MarkdownV2Builder(2048).bold("Ommaviy qo'shish yakunlandi").raw("\n\n");
+        md.raw("\u2705 ").text("Qo'shildi: ").text(result.created().size()).newline();
+        md.raw("\u23ED ").text("Allaqachon mavjud: ").text(result.existing().size()).newline();
+        if (!result.invalid().isEmpty()) {
+            md.raw("\u26A0\uFE0F ").text("Noto'g'ri nom: ").text(result.invalid().size()).newline();
+            appendReportLines(md, result.invalid().stream().map(name -> Map.entry(name, "")).toList());
+        }
+        if (!result.failed().isEmpty()) {
+            md.raw("\u274C ").text("Xato: ").text(result.failed().size()).newline();
+            appendReportLines(md, List.copyOf(result.failed().entrySet()));
+        }
+        return md.toString();
+    }
+
+    private static void appendReportLines(MarkdownV2Builder md, List<Map.Entry<String, String>> lines) {
+        for (int i = 0; i < Math.min(lines.size(), MAX_REPORT_LINES); i++) {
+            var line = lines.get(i);
+            md.raw("\\- ").code(line.getKey());
+            if (!line.getValue().isEmpty()) {
+                md.text(": ").text(line.getValue());
+            }
+            md.newline();
+        }
+        if (lines.size() > MAX_REPORT_LINES) {
+            md.text("... va yana " + (lines.size() - MAX_REPORT_LINES) + " ta").newline();
+        }
+    }
+
+    private Integer sendProgressMessage(String text, Integer messageThreadId) {
+        SendMessage message = SendMessage.builder()
+                .chatId(adminChatId)
+                .text(text)
+                .messageThreadId(messageThreadId)
+                .parseMode("MarkdownV2")
+                .build();
+        try {
+            return scheduler.execute(message, adminChatId, Priority.HIGH).getMessageId();
+        } catch (TelegramApiException e) {
+            log.error("Failed to send progress message", e);
+            return null;
+        }
+    }
+
+    private void updateProgress(String text, Integer progressId, Integer replyTopicId) {
+        if (progressId != null) {
+            editMessage(text, progressId, null);
+        } else {
+            sendReply(text, replyTopicId);
         }
-        sendReply(sb.toString(), replyTopicId);
+    }
+
+    private void handleListRepos(String prefix, Integer replyTopicId) {
+        if (prefix.getBytes(StandardCharsets.UTF_8).length > MAX_PREFIX_BYTES) {
+            sendReply(escape("Qidiruv prefiksi " + MAX_PREFIX_BYTES + " baytdan oshmasligi kerak "
+                    + "(lotin harfi 1 bayt, boshqa harflar 2-4 bayt)."), replyTopicId);
+            return;
+        }
+        showPage(false, prefix, true, 0, null, replyTopicId);
     }
 
     private void handleRemoveRepo(String repoFullName, Integer replyTopicId) {
@@ -288,7 +710,7 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
             return;
         }
 
-        repository.deleteByRepoFullName(repoFullName);
+        routingTable.delete(repoFullName);
 
         try {
             notificationService.deleteForumTopic(mapping.get().getTopicId());
@@ -300,20 +722,320 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
         log.info("Removed repo mapping: {}", repoFullName);
     }
 
+    private void handleCoalesce(String args, Integer replyTopicId) {
+        String[] parts = args.split("\\s+");
+        if (parts.length < 2 || parts.length > 3
+                || !parts[1].matches("\\d+") || (parts.length == 3 && !parts[2].matches("\\d+"))) {
+            sendReply(escape("Foydalanish: /coalesce owner/repo <soniya> [max]"), replyTopicId);
+            return;
+        }
+
+        String repoFullName = parts[0];
+        var mapping = repository.findByRepoFullName(repoFullName);
+        if (mapping.isEmpty()) {
+            sendReply(escape("Repository " + repoFullName + " topilmadi."), replyTopicId);
+            return;
+        }
+
+        int window = Integer.parseInt(parts[1]);
+        RepoTopicMapping m = mapping.get();
+        m.setCoalesceWindowSeconds(window);
+        m.setCoalesceMaxBatch(parts.length == 3 ? Integer.parseInt(parts[2]) : null);
+        routingTable.save(m);
+
+        String reply = window == 0
+                ? escape(" uchun birlashtirish o'chirildi.")
+                : escape(" uchun birlashtirish oynasi: " + window + "s"
+                        + (parts.length == 3 ? ", maksimal " + parts[2] + " ta push" : "") + ".");
+        sendReply("\u2705 " + bold(repoFullName) + reply, replyTopicId);
+        log.info("Updated coalescing for {}: window={}s, maxBatch={}", repoFullName, window, m.getCoalesceMaxBatch());
+    }
+
+    private void handleBranches(String args, Integer replyTopicId) {
+        String[] parts = args.split("\\s+", 2);
+        if (parts[0].isEmpty()) {
+            sendReply(escape("Foydalanish: /branches owner/repo [pattern ...|default]"), replyTopicId);
+            return;
+        }
+
+        String repoFullName = parts[0];
+        var mapping = repository.findByRepoFullName(repoFullName);
+        if (mapping.isEmpty()) {
+            sendReply(escape("Repository " + repoFullName + " topilmadi."), replyTopicId);
+            return;
+        }
+
+        RepoTopicMapping m = mapping.get();
+        if (parts.length == 2) {
+            String rules = parts[1].equals("default") ? null : BranchFilter.compile(parts[1]).source();
+            if (rules != null && rules.length() > RepoTopicMapping.MAX_BRANCH_RULES_LENGTH) {
+                sendReply(escape("Branch qoidalari " + RepoTopicMapping.MAX_BRANCH_RULES_LENGTH
+                        + " belgidan oshmasligi kerak."), replyTopicId);
+                return;
+            }
+            m.setBranchRules(rules);
+            routingTable.save(m);
+            log.info("Updated branch rules for {}: {}", repoFullName, rules);
+        }
+
+        String rules = m.getBranchRules();
+        var md = new MarkdownV2Builder(256);
+        if (parts.length == 2) {
+            md.raw("\u2705 ");
+        }
+        md.bold(repoFullName).text(" branch qoidalari: ");
+        if (rules == null || rules.isBlank()) {
+            md.text("faqat default branch.");
+        } else {
+            md.code(rules);
+        }
+        sendReply(md.toString(), replyTopicId);
+    }
+
+    private void handleTemplate(String args, Integer replyTopicId) {
+        String[] parts = args.split("\\s+", 2);
+        if (parts[0].isEmpty()) {
+            sendReply(escape("Foydalanish: /template owner/repo [shablon|default]"), replyTopicId);
+            return;
+        }
+
+        String repoFullName = parts[0];
+        var mapping = repository.findByRepoFullName(repoFullName);
+        if (mapping.isEmpty()) {
+            sendReply(escape("Repository " + repoFullName + " topilmadi."), replyTopicId);
+            return;
+        }
+
+        MessageTemplate template;
+        if (parts.length == 2) {
+            try {
+                template = parts[1].equals("default") ? null : MessageTemplate.compile(parts[1]);
+            } catch (IllegalArgumentException e) {
+                sendReply(escape("Shablonda xato: " + e.getMessage()), replyTopicId);
+                return;
+            }
+            RepoTopicMapping m = mapping.get();
+            m.setMessageTemplate(template == null ? null : template.source());
+            routingTable.save(m);
+            log.info("Updated message template for {}", repoFullName);
+        } else {
+            template = routingTable.find(repoFullName).map(Route::template).orElse(null);
+        }
+
+        var md = new MarkdownV2Builder(512);
+        if (parts.length == 2) {
+            md.raw("\u2705 ");
+        }
+        md.bold(repoFullName).text(" xabar shabloni: ");
+        if (template == null) {
+            md.text("standart.");
+        } else {
+            md.newline().pre(template.source());
+        }
+        sendReply(md.toString(), replyTopicId);
+
+        if (template != null) {
+            sendReply(escape("Namuna:") + "\n\n" + template.render(sampleValues(repoFullName)), replyTopicId);
+        }
+    }
+
+    private static MessageTemplate.Values sampleValues(String repoFullName) {
+        String url = "https://github.com/" + repoFullName;
+        List<Commit> commits = List.of(
+                new Commit("3f2c1a9d8e7b6c5d4e3f2a1b0c9d8e7f6a5b4c3d",
+                        "Fix login redirect\n\nKeeps the return URL after OAuth.", null,
+                        url + "/commit/3f2c1a9", new Commit.Author("Alice", null)),
+                new Commit("9a8b7c6d5e4f3a2b1c0d9e8f7a6b5c4d3e2f1a0b",
+                        "Add dark mode toggle", null,
+                        url + "/commit/9a8b7c6", new Commit.Author("Bob", null)));
+        return new MessageTemplate.Values(repoFullName, "main", "alice", 2, commits,
+                url + "/compare/1a2b3c4d5e6f...9a8b7c6d5e4f");
+    }
+
+    private void handleReplay(String args, Integer replyTopicId) {
+        String[] parts = args.split("\\s+");
+        Instant now = Instant.now();
+        Instant from;
+        Instant to;
+        try {
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException();
+            }
+            from = parseReplayTime(parts[1], now);
+            to = parts.length == 3 ? parseReplayTime(parts[2], now) : now;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendReply(escape("Foydalanish: /replay owner/repo|all dan [gacha]\n"
+                    + "Vaqt: 3h, 30m (hozirdan oldin) yoki 2026-01-31T14:00"), replyTopicId);
+            return;
+        }
+        if (!from.isBefore(to)) {
+            sendReply(escape("Boshlanish vaqti tugash vaqtidan oldin bo'lishi kerak."), replyTopicId);
+            return;
+        }
+        String repoFullName = parts[0].equals("all") ? null : parts[0];
+        if (!replayRunning.compareAndSet(false, true)) {
+            sendReply(escape("Oldingi replay hali tugamagan."), replyTopicId);
+            return;
+        }
+
+        Integer progressId = sendProgressMessage(escape("\u23F3 Journal qayta yuborilmoqda..."), replyTopicId);
+        try {
+            updateWorkers.execute(() -> {
+                try {
+                    EventJournal.ReplayResult result = journal.replay(repoFullName, from, to);
+                    var md = new MarkdownV2Builder(256).bold("Replay yakunlandi").raw("\n\n");
+                    md.text("Topildi: ").text(result.found()).newline();
+                    md.raw("\u2705 ").text("Navbatga qo'yildi: ").text(result.queued()).newline();
+                    md.raw("\u23ED ").text("O'tkazib yuborildi (mapping/branch): ").text(result.skipped()).newline();
+                    if (result.rejected() > 0) {
+                        md.raw("\u274C ").text("Navbat to'la: ").text(result.rejected()).newline();
+                    }
+                    updateProgress(md.toString(), progressId, replyTopicId);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error("Journal replay failed", e);
+                    updateProgress(escape("Replayda xato: " + e.getMessage()), progressId, replyTopicId);
+                } finally {
+                    replayRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            replayRunning.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Accepts a duration before {@code now} ({@code 3h}), an ISO instant, or a
+     * local date-time in the server's zone.
+     */
+    private static Instant parseReplayTime(String value, Instant now) {
+        if (!value.contains("T") || value.startsWith("P")) {
+            return now.minus(DurationStyle.detectAndParse(value));
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant();
+        }
+    }
+
+    private void handleStats(String repoFullName, Integer replyTopicId) {
+        Instant now = Instant.now();
+        if (repoFullName.isEmpty()) {
+            List<RepoActivityStats.Summary> summaries = stats.summaries(now);
+            if (summaries.isEmpty()) {
+                sendReply(escape("Hali faollik qayd etilmagan."), replyTopicId);
+                return;
+            }
+            var md = new MarkdownV2Builder(2048).bold("Faollik statistikasi").raw("\n\n");
+            for (int i = 0; i < Math.min(summaries.size(), MAX_REPORT_LINES); i++) {
+                RepoActivityStats.Summary summary = summaries.get(i);
+                md.raw("\\- ").code(summary.repoFullName()).text(":");
+                for (RepoActivityStats.Window w : summary.windows()) {
+                    md.text(" ").text(windowLabel(w.length())).text(" ")
+                            .text(w.pushes()).text(" push/").text(w.commits()).text(" commit;");
+                }
+                md.newline();
+            }
+            if (summaries.size() > MAX_REPORT_LINES) {
+                md.text("... va yana " + (summaries.size() - MAX_REPORT_LINES) + " ta").newline();
+            }
+            md.newline().text("Batafsil: /stats owner/repo");
+            sendReply(md.toString(), replyTopicId);
+            return;
+        }
+
+        RepoActivityStats.Summary summary = stats.summary(repoFullName, now);
+        var md = new MarkdownV2Builder(1024).bold(repoFullName).text(" faolligi").newline();
+        for (RepoActivityStats.Window w : summary.windows()) {
+            md.newline().bold("Oxirgi " + windowLabel(w.length())).newline();
+            md.text("Push: ").text(w.pushes()).text(", commit: ").text(w.commits()).newline();
+            md.text("Mualliflar (taxminan): ").text(w.distinctAuthors()).newline();
+            if (!w.topPushers().isEmpty()) {
+                md.text("Faol pusherlar: ");
+                for (int i = 0; i < w.topPushers().size(); i++) {
+                    RepoActivityStats.PusherCount p = w.topPushers().get(i);
+                    md.text(i == 0 ? "" : ", ").code(p.login()).text(" (").text(p.pushes()).text(")");
+                }
+                md.newline();
+            }
+        }
+        sendReply(md.toString(), replyTopicId);
+    }
+
+    private static String windowLabel(Duration window) {
+        return window.toHours() % 24 == 0 ? window.toDays() + " kun" : window.toHours() + " soat";
+    }
+
+    private void handleOutbox(Integer replyTopicId) {
+        var md = new MarkdownV2Builder(1024).bold("Outbox:").raw("\n\n");
+        md.text("Kutilmoqda: ").text(outbox.countByStatus(OutboxStatus.PENDING)).newline();
+        md.text("Yuborilmagan (dead): ").text(outbox.countByStatus(OutboxStatus.DEAD)).newline();
+
+        List<NotificationOutboxEntry> dead = outbox.findDead(10);
+        if (!dead.isEmpty()) {
+            md.newline();
+            for (NotificationOutboxEntry e : dead) {
+                md.raw("\\- ").code("#" + e.getId())
+                        .text(" topic ").text(e.getTopicId()).text(", ").text(e.getAttempts()).text(" urinish: ")
+                        .text(e.getLastError() == null ? "" : e.getLastError())
+                        .newline();
+            }
+            md.newline().text("Qayta yuborish: /requeue <id> yoki /requeue all");
+        }
+        sendReply(md.toString(), replyTopicId);
+    }
+
+    private void handleRequeue(String arg, Integer replyTopicId) {
+        if (arg.equals("all")) {
+            int count = outbox.requeueAllDead();
+            sendReply(escape(count + " ta xabar qayta navbatga qo'yildi."), replyTopicId);
+            return;
+        }
+        if (!arg.matches("\\d+")) {
+            sendReply(escape("Foydalanish: /requeue <id> yoki /requeue all"), replyTopicId);
+            return;
+        }
+        if (outbox.requeue(Long.parseLong(arg))) {
+            sendReply(escape("#" + arg + " qayta navbatga qo'yildi."), replyTopicId);
+        } else {
+            sendReply(escape("#" + arg + " dead holatida topilmadi."), replyTopicId);
+        }
+    }
+
     private void handleHelp(Integer replyTopicId) {
         String help = """
                 *Admin Bot Buyruqlari:*
 
                 /start \\- Asosiy menyuni ko'rsatish
                 /addrepo owner/repo \\- Repo qo'shish va forum topic yaratish
-                /repos \\- Barcha sozlangan repolarni ko'rsatish
+                /addrepos owner/a owner/b \\.\\.\\. \\| owner/\\* \\[confirm\\] \\- Ko'p repolarni birdaniga qo'shish
+                /repos \\[prefix\\] \\- Sozlangan repolarni sahifalab ko'rsatish \\(prefix bo'yicha qidirish\\)
                 /removerepo owner/repo \\- Reponi o'chirish va topicni yo'q qilish
+                /coalesce owner/repo soniya \\[max\\] \\- Pushlarni bitta xabarga birlashtirish \\(0 \\- o'chirish\\)
+                /branches owner/repo \\[pattern \\.\\.\\.\\|default\\] \\- Branch filtrlari \\(`release/*`, `!wip/*`, `$default`\\)
+                /template owner/repo \\[shablon\\|default\\] \\- Xabar shabloni \\(`{repo:bold}`, `{#commits:5}• {message}{/commits}`, `{link}`\\)
+                /replay owner/repo\\|all dan \\[gacha\\] \\- Journaldagi pushlarni qayta yuborish \\(`3h`, `2026\\-01\\-31T14:00`\\)
+                /stats \\[owner/repo\\] \\- Push, commit, muallif va faol pusherlar statistikasi
+                /outbox \\- Yuborilmagan xabarlarni ko'rsatish
+                /requeue id\\|all \\- Dead xabarlarni qayta yuborish
                 /help \\- Ushbu yordam xabarini ko'rsatish""";
         sendReply(help, replyTopicId);
     }
 
     // --- Helper methods ---
 
+    private String formatRepoList(List<RepoTopicMapping> mappings) {
+        var md = new MarkdownV2Builder(64 * mappings.size() + 32).bold("Sozlangan repolar:").raw("\n\n");
+        for (RepoTopicMapping m : mappings) {
+            md.raw("\\- ").code(m.getRepoFullName())
+                    .text(" (topic ").text(m.getTopicId()).text(")").newline();
+        }
+        return md.toString();
+    }
+
     private InlineKeyboardMarkup buildMainMenu() {
         return InlineKeyboardMarkup.builder()
                 .keyboardRow(new InlineKeyboardRow(
@@ -334,7 +1056,7 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
                 .replyMarkup(keyboard)
                 .build();
         try {
-            telegramClient.execute(message);
+            scheduler.execute(message, adminChatId, Priority.HIGH);
         } catch (TelegramApiException e) {
             log.error("Failed to send message with keyboard", e);
         }
@@ -350,7 +1072,7 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
             builder.replyMarkup(keyboard);
         }
         try {
-            telegramClient.execute(builder.build());
+            scheduler.execute(builder.build(), adminChatId, Priority.HIGH);
         } catch (TelegramApiException e) {
             log.error("Failed to edit message", e);
         }
@@ -358,9 +1080,9 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
 
     private void answerCallbackQuery(String callbackQueryId) {
         try {
-            telegramClient.execute(AnswerCallbackQuery.builder()
+            scheduler.execute(AnswerCallbackQuery.builder()
                     .callbackQueryId(callbackQueryId)
-                    .build());
+                    .build(), null, Priority.HIGH);
         } catch (TelegramApiException e) {
             log.error("Failed to answer callback query", e);
         }
@@ -373,13 +1095,13 @@ public class AdminBotService implements LongPollingSingleThreadUpdateConsumer {
                 .parseMode("MarkdownV2")
                 .build();
         try {
-            telegramClient.execute(message);
+            scheduler.execute(message, adminChatId, Priority.HIGH);
         } catch (TelegramApiException e) {
             log.error("Failed to send admin message", e);
         }
     }
 
     private void sendReply(String text, Integer messageThreadId) {
-        notificationService.sendMessage(text, messageThreadId);
+        notificationService.sendMessage(text, messageThreadId, Priority.HIGH);
     }
 }
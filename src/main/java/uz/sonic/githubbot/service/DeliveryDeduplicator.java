@@ -0,0 +1,60 @@
+package uz.sonic.githubbot.service;
+
+import org.springframework.stereotype.Service;
+import uz.sonic.githubbot.config.DeliveryDedupProperties;
+import uz.sonic.githubbot.util.ExpiringKeySet;
+
+/**
+ * Recognises GitHub redeliveries, either by {@code X-GitHub-Delivery} id or
+ * by the pushed head SHA of a repo's branch, within a configurable window.
+ * The ref is part of the push key: the same SHA pushed to two branches, or
+ * two branch deletions, are separate pushes.
+ * <p>
+ * Claims live in this instance's memory only. In the cluster profile a
+ * redelivery that reaches a different instance is not recognised, so the load
+ * balancer should route by {@code X-GitHub-Delivery} (or by repository) to
+ * keep redeliveries on the instance that saw the original.
+ */
+@Service
+public class DeliveryDeduplicator {
+
+    private final ExpiringKeySet seen;
+
+    public DeliveryDeduplicator(DeliveryDedupProperties properties) {
+        this.seen = new ExpiringKeySet(properties.window().toNanos(), properties.maxEntries());
+    }
+
+    /**
+     * @return {@code false} if the delivery id was already claimed within the window
+     */
+    public boolean claimDelivery(String deliveryId) {
+        return deliveryId == null || seen.add(deliveryKey(deliveryId));
+    }
+
+    /**
+     * @return {@code false} if the same head SHA was already claimed for the repo's ref within the window
+     */
+    public boolean claimPush(String repoFullName, String ref, String after) {
+        return after == null || seen.add(pushKey(repoFullName, ref, after));
+    }
+
+    /**
+     * Forgets claims for a delivery that was not accepted, so GitHub's retry goes through.
+     */
+    public void release(String deliveryId, String repoFullName, String ref, String after) {
+        if (deliveryId != null) {
+            seen.remove(deliveryKey(deliveryId));
+        }
+        if (repoFullName != null && after != null) {
+            seen.remove(pushKey(repoFullName, ref, after));
+        }
+    }
+
+    private static String deliveryKey(String deliveryId) {
+        return "d:" + deliveryId;
+    }
+
+    private static String pushKey(String repoFullName, String ref, String after) {
+        return "p:" + repoFullName + ':' + ref + '@' + after;
+    }
+}
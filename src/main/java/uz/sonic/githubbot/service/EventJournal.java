@@ -0,0 +1,486 @@
+package uz.sonic.githubbot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import uz.sonic.githubbot.config.EventJournalProperties;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.service.RepoRoutingTable.Route;
+import uz.sonic.githubbot.util.JournalSegment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of received push events in memory-mapped segment files.
+ * Pushes are journaled before routing, so replay also covers repos mapped and
+ * branches unfiltered after the fact; pushes that were not parsed on receipt
+ * are kept as their verified webhook body. Request threads only enqueue; a
+ * single writer thread encodes and appends, rolls segments and applies size
+ * and age retention. Each segment keeps an in-memory index of record
+ * positions per repo, rebuilt from the files on startup, so a repo's pushes
+ * in a time range are read without a full scan.
+ * <p>
+ * In a cluster each instance writes its own directory. When
+ * {@code journal.cluster-directory} holds all of them, replay also reads the
+ * other instances' segments, so the leader replays every instance's pushes.
+ */
+@Service
+public class EventJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long RETENTION_CHECK_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long SUBMIT_RETRY_MILLIS = 100;
+    private static final long SUBMIT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private sealed interface Journaled permits Entry, RawEntry {
+        Instant receivedAt();
+
+        String deliveryId();
+
+        String repoFullName();
+    }
+
+    public record Entry(Instant receivedAt, String deliveryId, PushEvent event) implements Journaled {
+
+        @Override
+        public String repoFullName() {
+            return event.repository().fullName();
+        }
+    }
+
+    /**
+     * Verified webhook body of a push that was journaled without being parsed.
+     */
+    public record RawEntry(Instant receivedAt, String deliveryId, String repoFullName, byte[] body)
+            implements Journaled {}
+
+    /**
+     * @param skipped pushes whose repo is not mapped, whose branch is filtered, that repeat an
+     *                earlier push in the range, or whose record could not be read
+     * @param rejected pushes the notification pipeline did not accept in time
+     */
+    public record ReplayResult(int found, int queued, int skipped, int rejected) {}
+
+    private final EventJournalProperties properties;
+    private final RepoRoutingTable routingTable;
+    private final NotificationPipeline pipeline;
+    private final PushEventReader pushEventReader;
+    private final BlockingQueue<Journaled> queue;
+    private final Counter written;
+    private final Counter dropped;
+    // Oldest first; the last segment is the one being appended to.
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Thread writer;
+    private volatile boolean running;
+    private long lastSegmentName;
+    private long lastRetentionCheck;
+    private boolean dirty;
+    // Held for the life of the process; released by the OS on exit.
+    private FileLock directoryLock;
+
+    public EventJournal(EventJournalProperties properties, RepoRoutingTable routingTable,
+                        NotificationPipeline pipeline, PushEventReader pushEventReader,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.routingTable = routingTable;
+        this.pipeline = pipeline;
+        this.pushEventReader = pushEventReader;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.written = meterRegistry.counter("journal.appends", "outcome", "written");
+        this.dropped = meterRegistry.counter("journal.appends", "outcome", "dropped");
+        Gauge.builder("journal.segments", segments, List::size).register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("event-journal").daemon().unstarted(this::writeLoop);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.enabled()) {
+            return;
+        }
+        // The directory is created on the first append, not here.
+        if (Files.isDirectory(properties.directory())) {
+            lockDirectory();
+            try (Stream<Path> files = Files.list(properties.directory())) {
+                for (Path path : files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted().toList()) {
+                    segments.add(Segment.load(JournalSegment.open(path)));
+                    lastSegmentName = Math.max(lastSegmentName, segmentName(path));
+                }
+            }
+            log.info("Opened event journal with {} segments", segments.size());
+        }
+        running = true;
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(properties.flushInterval().toMillis() + TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Queues a push for the journal without blocking; drops it when the writer is behind.
+     */
+    public void append(String deliveryId, PushEvent event) {
+        if (!running) {
+            return;
+        }
+        offer(new Entry(Instant.now(), deliveryId, event));
+    }
+
+    /**
+     * Queues the verified body of a push that is not parsed, for a repo that
+     * is not mapped or a branch that is filtered. The first {@code length}
+     * bytes of {@code data} are copied, so the caller may reuse the array.
+     */
+    public void appendRaw(String deliveryId, String repoFullName, byte[] data, int length) {
+        if (!running) {
+            return;
+        }
+        offer(new RawEntry(Instant.now(), deliveryId, repoFullName, Arrays.copyOf(data, length)));
+    }
+
+    private void offer(Journaled entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Resubmits journaled pushes received in {@code [from, to)} through the
+     * current route and branch filter, oldest first, bypassing delivery
+     * deduplication. A push journaled more than once, such as one GitHub
+     * retried after the queue was full, is resubmitted once.
+     *
+     * @param repoFullName repo to replay, or {@code null} for all repos
+     */
+    public ReplayResult replay(String repoFullName, Instant from, Instant to) throws InterruptedException {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<ByteBuffer> records = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.maxTimestamp < fromMillis || segment.minTimestamp >= toMillis) {
+                continue;
+            }
+            for (int position : segment.positions(repoFullName)) {
+                ByteBuffer record = segment.file.read(position);
+                long receivedAt = PushEventCodec.receivedAtMillis(record);
+                if (receivedAt >= fromMillis && receivedAt < toMillis) {
+                    records.add(record);
+                }
+            }
+        }
+        records.addAll(clusterRecords(repoFullName, fromMillis, toMillis));
+        // Instances journal independently; interleave their records by receive time.
+        records.sort(Comparator.comparingLong(PushEventCodec::receivedAtMillis));
+
+        Set<String> seen = new HashSet<>();
+        int found = 0;
+        int queued = 0;
+        int skipped = 0;
+        int rejected = 0;
+        for (ByteBuffer record : records) {
+            found++;
+            PushEvent event;
+            try {
+                event = decodeEvent(record);
+            } catch (RuntimeException e) {
+                log.warn("Skipping unreadable journal record for {}: {}",
+                        PushEventCodec.repoFullName(record), e.getMessage());
+                skipped++;
+                continue;
+            }
+            String repo = event.repository().fullName();
+            Optional<Route> route = routingTable.find(repo);
+            if (!seen.add(repo + ':' + event.ref() + '@' + event.after())
+                    || route.isEmpty()
+                    || !route.get().branchFilter().matches(event.ref(), event.repository().defaultBranch())) {
+                skipped++;
+            } else if (submit(route.get(), event)) {
+                queued++;
+            } else {
+                rejected++;
+            }
+        }
+        log.info("Replayed journal for {} from {} to {}: {} found, {} queued, {} skipped, {} rejected",
+                repoFullName == null ? "all repos" : repoFullName, from, to, found, queued, skipped, rejected);
+        return new ReplayResult(found, queued, skipped, rejected);
+    }
+
+    private PushEvent decodeEvent(ByteBuffer record) {
+        if (!PushEventCodec.isRaw(record)) {
+            return PushEventCodec.decode(record).event();
+        }
+        byte[] body = PushEventCodec.decodeRaw(record).body();
+        return pushEventReader.read(body, 0, body.length);
+    }
+
+    /**
+     * Records in range from the other instances' directories under
+     * {@code journal.cluster-directory}, read without indexes or locks.
+     */
+    private List<ByteBuffer> clusterRecords(String repoFullName, long fromMillis, long toMillis) {
+        Path root = properties.clusterDirectory();
+        if (root == null || !Files.isDirectory(root)) {
+            return List.of();
+        }
+        Path own = properties.directory().toAbsolutePath().normalize();
+        List<ByteBuffer> records = new ArrayList<>();
+        try (Stream<Path> directories = Files.list(root)) {
+            for (Path directory : directories.filter(Files::isDirectory)
+                    .filter(d -> !d.toAbsolutePath().normalize().equals(own)).sorted().toList()) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path path : files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                            .sorted().toList()) {
+                        readClusterSegment(path, repoFullName, fromMillis, toMillis, records);
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not read all journals under {}: {}", root, e.getMessage());
+        }
+        return records;
+    }
+
+    private static void readClusterSegment(Path path, String repoFullName, long fromMillis, long toMillis,
+                                           List<ByteBuffer> records) {
+        JournalSegment file;
+        try {
+            file = JournalSegment.openReadOnly(path);
+        } catch (IOException e) {
+            // Its instance may have deleted it under retention since the listing.
+            log.warn("Could not open journal segment {}: {}", path, e.getMessage());
+            return;
+        }
+        file.forEach((position, record) -> {
+            try {
+                long receivedAt = PushEventCodec.receivedAtMillis(record);
+                if (receivedAt >= fromMillis && receivedAt < toMillis
+                        && (repoFullName == null || repoFullName.equals(PushEventCodec.repoFullName(record)))) {
+                    records.add(record);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Skipping unreadable journal record at {} in {}: {}", position, path, e.getMessage());
+            }
+        });
+    }
+
+    private boolean submit(Route route, PushEvent event) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + SUBMIT_TIMEOUT_MILLIS;
+        while (!pipeline.submit(route, event)) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(SUBMIT_RETRY_MILLIS);
+        }
+        return true;
+    }
+
+    private void writeLoop() {
+        long flushMillis = properties.flushInterval().toMillis();
+        while (running || !queue.isEmpty()) {
+            try {
+                Journaled entry = queue.poll(flushMillis, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    write(entry);
+                } else if (dirty) {
+                    segments.getLast().file.force();
+                    dirty = false;
+                }
+                if (System.currentTimeMillis() - lastRetentionCheck >= RETENTION_CHECK_INTERVAL_MILLIS) {
+                    applyRetention();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Exception e) {
+                log.error("Event journal write failed", e);
+            }
+        }
+        if (dirty) {
+            segments.getLast().file.force();
+        }
+    }
+
+    private void write(Journaled entry) throws IOException {
+        byte[] record = switch (entry) {
+            case Entry event -> PushEventCodec.encode(event);
+            case RawEntry raw -> PushEventCodec.encode(raw);
+        };
+        int segmentSize = (int) properties.segmentSize().toBytes();
+        if (record.length + JournalSegment.HEADER_SIZE > segmentSize) {
+            log.warn("Push delivery {} for {} is too large for the journal ({} bytes)",
+                    entry.deliveryId(), entry.repoFullName(), record.length);
+            dropped.increment();
+            return;
+        }
+        Segment active = segments.isEmpty() ? null : segments.getLast();
+        int position = active == null ? -1 : active.file.append(record);
+        if (position < 0) {
+            active = roll(segmentSize);
+            position = active.file.append(record);
+        }
+        active.index(position, entry.repoFullName(), entry.receivedAt().toEpochMilli());
+        dirty = true;
+        written.increment();
+    }
+
+    private Segment roll(int segmentSize) throws IOException {
+        if (!segments.isEmpty()) {
+            segments.getLast().file.force();
+        }
+        if (directoryLock == null) {
+            Files.createDirectories(properties.directory());
+            lockDirectory();
+        }
+        // Names are creation times, kept unique and increasing so sorting by name gives segment order.
+        lastSegmentName = Math.max(System.currentTimeMillis(), lastSegmentName + 1);
+        Path path = properties.directory().resolve("%020d%s".formatted(lastSegmentName, SEGMENT_SUFFIX));
+        Segment segment = new Segment(JournalSegment.create(path, segmentSize));
+        segments.add(segment);
+        applyRetention();
+        return segment;
+    }
+
+    private void applyRetention() {
+        lastRetentionCheck = System.currentTimeMillis();
+        long cutoff = lastRetentionCheck - properties.retention().toMillis();
+        long maxBytes = properties.maxSize().toBytes();
+        long totalBytes = segments.stream().mapToLong(s -> s.file.capacity()).sum();
+        while (segments.size() > 1) {
+            Segment oldest = segments.getFirst();
+            if (totalBytes <= maxBytes && oldest.maxTimestamp >= cutoff) {
+                break;
+            }
+            segments.removeFirst();
+            totalBytes -= oldest.file.capacity();
+            try {
+                Files.deleteIfExists(oldest.file.path());
+                log.info("Deleted journal segment {}", oldest.file.path().getFileName());
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", oldest.file.path(), e.getMessage());
+            }
+        }
+    }
+
+    private void lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(properties.directory().resolve(".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Journal directory " + properties.directory()
+                    + " is in use by another process; give each instance its own journal.directory");
+        }
+        directoryLock = lock;
+    }
+
+    private static long segmentName(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class Segment {
+        private final JournalSegment file;
+        // Written by the journal thread only, read by replays.
+        private final Map<String, Positions> positionsByRepo = new ConcurrentHashMap<>();
+        private final Positions all = new Positions();
+        private volatile long minTimestamp = Long.MAX_VALUE;
+        private volatile long maxTimestamp = Long.MIN_VALUE;
+
+        Segment(JournalSegment file) {
+            this.file = file;
+        }
+
+        static Segment load(JournalSegment file) {
+            Segment segment = new Segment(file);
+            file.forEach((position, record) -> {
+                try {
+                    segment.index(position, PushEventCodec.repoFullName(record),
+                            PushEventCodec.receivedAtMillis(record));
+                } catch (RuntimeException e) {
+                    log.warn("Skipping unreadable journal record at {} in {}: {}",
+                            position, file.path().getFileName(), e.getMessage());
+                }
+            });
+            return segment;
+        }
+
+        void index(int position, String repoFullName, long timestamp) {
+            positionsByRepo.computeIfAbsent(repoFullName, r -> new Positions()).add(position);
+            all.add(position);
+            if (timestamp < minTimestamp) {
+                minTimestamp = timestamp;
+            }
+            if (timestamp > maxTimestamp) {
+                maxTimestamp = timestamp;
+            }
+        }
+
+        int[] positions(String repoFullName) {
+            if (repoFullName == null) {
+                return all.toArray();
+            }
+            Positions positions = positionsByRepo.get(repoFullName);
+            return positions == null ? new int[0] : positions.toArray();
+        }
+    }
+
+    private static final class Positions {
+        private int[] values = new int[16];
+        private int size;
+
+        synchronized void add(int position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+
+        synchronized int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
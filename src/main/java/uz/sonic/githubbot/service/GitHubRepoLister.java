@@ -0,0 +1,78 @@
+package uz.sonic.githubbot.service;
+
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import uz.sonic.githubbot.config.GitHubApiProperties;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists an owner's repositories through the GitHub REST API, used to expand
+ * {@code owner/*} patterns when onboarding. Without a token only public
+ * repositories are visible.
+ */
+@Service
+public class GitHubRepoLister {
+
+    private static final int PER_PAGE = 100;
+    private static final int MAX_PAGES = 50;
+
+    private final GitHubApiProperties properties;
+    private final JsonMapper jsonMapper;
+    private final HttpClient httpClient;
+
+    public GitHubRepoLister(GitHubApiProperties properties, JsonMapper jsonMapper) {
+        this.properties = properties;
+        this.jsonMapper = jsonMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.timeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * @return full names of the organization's or user's repositories
+     */
+    public List<String> listRepos(String owner) throws IOException, InterruptedException {
+        List<String> names = new ArrayList<>();
+        String kind = "orgs";
+        for (int page = 1; page <= MAX_PAGES; page++) {
+            HttpResponse<byte[]> response = get(kind, owner, page);
+            if (response.statusCode() == 404 && kind.equals("orgs")) {
+                kind = "users";
+                page = 0;
+                continue;
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("GitHub API returned " + response.statusCode() + " for " + owner);
+            }
+            JsonNode repos = jsonMapper.readTree(response.body());
+            for (JsonNode repo : repos) {
+                names.add(repo.path("full_name").asString());
+            }
+            if (repos.size() < PER_PAGE) {
+                break;
+            }
+        }
+        return names;
+    }
+
+    private HttpResponse<byte[]> get(String kind, String owner, int page) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(properties.baseUrl() + "/" + kind + "/" + owner
+                        + "/repos?per_page=" + PER_PAGE + "&page=" + page))
+                .timeout(properties.timeout())
+                .header("Accept", "application/vnd.github+json")
+                .header("User-Agent", "github-bot");
+        if (properties.token() != null && !properties.token().isBlank()) {
+            request.header("Authorization", "Bearer " + properties.token());
+        }
+        return httpClient.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
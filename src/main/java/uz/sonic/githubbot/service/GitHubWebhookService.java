@@ -1,45 +1,40 @@
 package uz.sonic.githubbot.service;
 
 import org.springframework.stereotype.Service;
-import uz.sonic.githubbot.config.GitHubWebhookProperties;
 import uz.sonic.githubbot.model.Commit;
 import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.util.MarkdownV2Builder;
+import uz.sonic.githubbot.util.MessageTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
-import static uz.sonic.githubbot.util.MarkdownV2Utils.*;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class GitHubWebhookService {
 
-    private final GitHubWebhookProperties properties;
+    private final WebhookSignatureVerifier signatureVerifier;
 
-    public GitHubWebhookService(GitHubWebhookProperties properties) {
-        this.properties = properties;
+    public GitHubWebhookService(WebhookSignatureVerifier signatureVerifier) {
+        this.signatureVerifier = signatureVerifier;
     }
 
     public boolean isValidSignature(byte[] payload, String signature) {
-        if (signature == null || !signature.startsWith("sha256=")) {
-            return false;
-        }
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKey = new SecretKeySpec(
-                    properties.secret().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            mac.init(secretKey);
-            byte[] hash = mac.doFinal(payload);
-            String expected = "sha256=" + HexFormat.of().formatHex(hash);
-            return MessageDigest.isEqual(
-                    expected.getBytes(StandardCharsets.UTF_8),
-                    signature.getBytes(StandardCharsets.UTF_8));
-        } catch (Exception e) {
-            return false;
+        return signatureVerifier.isValid(payload, signature);
+    }
+
+    /**
+     * Formats with the repo's template, or the built-in layout when {@code template} is {@code null}.
+     */
+    public String formatPushMessage(PushEvent event, MessageTemplate template) {
+        if (template == null) {
+            return formatPushMessage(event);
         }
+        return template.render(new MessageTemplate.Values(event.repository().fullName(),
+                event.ref().replace("refs/heads/", ""), event.pusher().name(),
+                event.commitCount(), event.commits(), event.compare()));
     }
 
     public String formatPushMessage(PushEvent event) {
@@ -47,7 +42,7 @@ public class GitHubWebhookService {
         String repoFullName = event.repository().fullName();
         String pusherName = event.pusher().name();
 
-        var sb = new StringBuilder();
+        var md = new MarkdownV2Builder(512);
 
         // Find merge commit (if PR was merged)
         Commit mergeCommit = event.commits().stream()
@@ -57,16 +52,16 @@ public class GitHubWebhookService {
 
         if (mergeCommit != null) {
             // PR merge format
-            String firstLine = mergeCommit.message().lines().findFirst().orElse("");
-            String extendedDescription = extractExtendedDescription(mergeCommit.message());
+            String message = mergeCommit.message();
+            String extendedDescription = extractExtendedDescription(message);
 
-            sb.append("\uD83D\uDD00 ").append(bold("PR Merged in " + repoFullName)).append("\n\n");
-            sb.append("\uD83C\uDF3F Branch: ").append(code(branch)).append("\n");
-            sb.append("\uD83D\uDC64 Merged by: ").append(bold(pusherName)).append("\n");
-            sb.append("\uD83D\uDD17 ").append(escape(firstLine)).append("\n");
+            md.raw("\uD83D\uDD00 *").text("PR Merged in ").text(repoFullName).raw("*\n\n");
+            md.raw("\uD83C\uDF3F Branch: ").code(branch).newline();
+            md.raw("\uD83D\uDC64 Merged by: ").bold(pusherName).newline();
+            md.raw("\uD83D\uDD17 ").text(message, 0, firstLineEnd(message)).newline();
 
             if (!extendedDescription.isEmpty()) {
-                sb.append("\n\uD83D\uDCDD ").append(italic(extendedDescription)).append("\n");
+                md.raw("\n\uD83D\uDCDD ").italic(extendedDescription).newline();
             }
 
             // List non-merge commits as changes
@@ -74,40 +69,101 @@ public class GitHubWebhookService {
                     .filter(c -> c != mergeCommit)
                     .toList();
 
-            if (!changes.isEmpty()) {
-                sb.append("\n\uD83D\uDCE6 ").append(escape("Changes (" + changes.size() + " commits):")).append("\n");
-                appendCommitList(sb, changes);
+            int changeCount = event.commitCount() - 1;
+            if (changeCount > 0) {
+                md.raw("\n\uD83D\uDCE6 ").text("Changes (").text(changeCount).text(" commits):").newline();
+                appendCommitList(md, changes, changeCount);
             }
         } else {
             // Regular push format
-            int commitCount = event.commits().size();
-            sb.append("\uD83D\uDD14 ").append(bold("New Push to " + repoFullName)).append("\n\n");
-            sb.append("\uD83C\uDF3F Branch: ").append(code(branch)).append("\n");
-            sb.append("\uD83D\uDC64 Pushed by: ").append(bold(pusherName)).append("\n");
-            sb.append("\uD83D\uDCE6 Commits: ").append(commitCount).append("\n\n");
+            int commitCount = event.commitCount();
+            md.raw("\uD83D\uDD14 *").text("New Push to ").text(repoFullName).raw("*\n\n");
+            md.raw("\uD83C\uDF3F Branch: ").code(branch).newline();
+            md.raw("\uD83D\uDC64 Pushed by: ").bold(pusherName).newline();
+            md.raw("\uD83D\uDCE6 Commits: ").raw(commitCount).raw("\n\n");
+
+            appendCommitList(md, event.commits(), commitCount);
+        }
+
+        md.raw("\n\uD83D\uDD17 ").link("View Changes", event.compare());
+        return md.toString();
+    }
+
+    public String formatPushDigest(List<PushEvent> events) {
+        return formatPushDigest(events, null);
+    }
+
+    public String formatPushDigest(List<PushEvent> events, MessageTemplate template) {
+        if (events.size() == 1) {
+            return formatPushMessage(events.getFirst(), template);
+        }
+        PushEvent first = events.getFirst();
+        PushEvent last = events.getLast();
+        String branch = first.ref().replace("refs/heads/", "");
+        String repoFullName = first.repository().fullName();
+
+        Map<String, Commit> commits = new LinkedHashMap<>();
+        Set<String> pushers = new LinkedHashSet<>();
+        int truncated = 0;
+        for (PushEvent event : events) {
+            pushers.add(event.pusher().name());
+            truncated += event.commitCount() - event.commits().size();
+            for (Commit commit : event.commits()) {
+                commits.putIfAbsent(commit.id(), commit);
+            }
+        }
 
-            appendCommitList(sb, event.commits());
+        int commitCount = commits.size() + truncated;
+        if (template != null) {
+            return template.render(new MessageTemplate.Values(repoFullName, branch, String.join(", ", pushers),
+                    commitCount, List.copyOf(commits.values()), digestCompareUrl(first, last)));
         }
 
-        sb.append("\n\uD83D\uDD17 ").append(link("View Changes", event.compare()));
-        return sb.toString();
+        var md = new MarkdownV2Builder(1024);
+        md.raw("\uD83D\uDD14 *").text(events.size()).text(" pushes to ").text(repoFullName).raw("*\n\n");
+        md.raw("\uD83C\uDF3F Branch: ").code(branch).newline();
+        md.raw("\uD83D\uDC64 Pushed by: ").bold(String.join(", ", pushers)).newline();
+        md.raw("\uD83D\uDCE6 Commits: ").raw(commitCount).raw("\n\n");
+
+        appendCommitList(md, List.copyOf(commits.values()), commitCount);
+
+        md.raw("\n\uD83D\uDD17 ").link("View Changes", digestCompareUrl(first, last));
+        return md.toString();
     }
 
-    private static final int MAX_COMMITS = 10;
+    private String digestCompareUrl(PushEvent first, PushEvent last) {
+        String before = first.before();
+        if (before == null || before.chars().allMatch(c -> c == '0') || last.after() == null) {
+            return last.compare();
+        }
+        return first.repository().htmlUrl() + "/compare/"
+                + before.substring(0, Math.min(12, before.length())) + "..."
+                + last.after().substring(0, Math.min(12, last.after().length()));
+    }
 
-    private void appendCommitList(StringBuilder sb, List<Commit> commits) {
-        int shown = Math.min(commits.size(), MAX_COMMITS);
+    private void appendCommitList(MarkdownV2Builder md, List<Commit> commits, int totalCount) {
+        int shown = Math.min(commits.size(), MessageTemplate.DEFAULT_MAX_COMMITS);
         for (int i = 0; i < shown; i++) {
             Commit commit = commits.get(i);
-            String shortId = commit.id().substring(0, Math.min(7, commit.id().length()));
-            String firstLine = commit.message().lines().findFirst().orElse("");
-            sb.append("\u2022 ").append(code(shortId)).append(" \\- ")
-                    .append(escape(firstLine)).append("\n");
+            String id = commit.id();
+            String message = commit.message();
+            md.raw("\u2022 ").code(id, 0, Math.min(7, id.length())).raw(" \\- ")
+                    .text(message, 0, firstLineEnd(message)).newline();
         }
-        int remaining = commits.size() - shown;
+        int remaining = totalCount - shown;
         if (remaining > 0) {
-            sb.append(escape("... va yana " + remaining + " ta commit")).append("\n");
+            md.text("... va yana ").text(remaining).text(" ta commit").newline();
+        }
+    }
+
+    private static int firstLineEnd(String message) {
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
         }
+        return message.length();
     }
 
     private String extractExtendedDescription(String message) {
@@ -0,0 +1,144 @@
+package uz.sonic.githubbot.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import uz.sonic.githubbot.config.ClusterProperties;
+import uz.sonic.githubbot.repository.LeaderLeaseRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lease in the shared database that elects one instance to run the singleton
+ * work: long polling (Telegram allows one poller per token) and outbox
+ * dispatch (rate limits are per token, not per instance). Webhook intake runs
+ * on every instance. Leadership changes are published as
+ * {@link LeadershipChanged} events, and each renewal by the holder as a
+ * {@link LeaseRenewed} event, so work that failed to start can be retried.
+ */
+@Service
+public class LeaderLeaseService {
+
+    public record LeadershipChanged(boolean leader) {}
+
+    public record LeaseRenewed() {}
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderLeaseService.class);
+
+    static final String LEASE_NAME = "leader";
+
+    private final LeaderLeaseRepository repository;
+    private final ApplicationEventPublisher events;
+    private final String leaseName;
+    private final String instanceId;
+    private final Duration ttl;
+    private final Duration renewInterval;
+    private final ScheduledExecutorService timer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("leader-lease").daemon().factory());
+    private volatile boolean leader;
+    private Instant validUntil = Instant.EPOCH;
+
+    @Autowired
+    public LeaderLeaseService(LeaderLeaseRepository repository, ClusterProperties properties,
+                              ApplicationEventPublisher events) {
+        this(repository, properties, events, LEASE_NAME);
+    }
+
+    LeaderLeaseService(LeaderLeaseRepository repository, ClusterProperties properties,
+                       ApplicationEventPublisher events, String leaseName) {
+        this.repository = repository;
+        this.events = events;
+        this.leaseName = leaseName;
+        this.instanceId = properties.instanceId() == null || properties.instanceId().isBlank()
+                ? UUID.randomUUID().toString()
+                : properties.instanceId();
+        this.ttl = properties.leaseTtl();
+        this.renewInterval = properties.leaseRenewInterval();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Instance {} competing for the {} lease", instanceId, leaseName);
+        timer.scheduleWithFixedDelay(() -> tick(Instant.now()), 0, renewInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        if (leader) {
+            leader = false;
+            try {
+                // Let another instance take over without waiting for the lease to expire.
+                repository.release(leaseName, instanceId, Instant.now());
+                log.info("Released the {} lease", leaseName);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release the {} lease: {}", leaseName, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    synchronized void tick(Instant now) {
+        boolean holds;
+        try {
+            holds = tryAcquire(now);
+            if (holds) {
+                validUntil = now.plus(ttl);
+            }
+        } catch (RuntimeException e) {
+            // Without the database the lease cannot be renewed; step down well
+            // before it can expire and be taken over by another instance.
+            holds = leader && now.isBefore(validUntil.minus(renewInterval));
+            log.warn("Lease renewal failed{}: {}", holds ? "" : ", stepping down", e.getMessage());
+        }
+        if (holds != leader) {
+            leader = holds;
+            log.info("Instance {} {} the {} lease", instanceId, holds ? "acquired" : "lost", leaseName);
+            try {
+                events.publishEvent(new LeadershipChanged(holds));
+            } catch (RuntimeException e) {
+                log.error("Leadership change listener failed", e);
+            }
+        } else if (holds) {
+            try {
+                events.publishEvent(new LeaseRenewed());
+            } catch (RuntimeException e) {
+                log.error("Lease renewal listener failed", e);
+            }
+        }
+    }
+
+    private boolean tryAcquire(Instant now) {
+        Instant expiresAt = now.plus(ttl);
+        if (repository.tryAcquire(leaseName, instanceId, expiresAt, now) == 1) {
+            return true;
+        }
+        if (repository.existsById(leaseName)) {
+            return false;
+        }
+        try {
+            repository.create(leaseName, instanceId, expiresAt);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
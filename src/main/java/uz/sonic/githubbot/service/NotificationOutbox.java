@@ -0,0 +1,298 @@
+package uz.sonic.githubbot.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import uz.sonic.githubbot.config.NotificationOutboxProperties;
+import uz.sonic.githubbot.entity.NotificationOutboxEntry;
+import uz.sonic.githubbot.entity.OutboxStatus;
+import uz.sonic.githubbot.repository.NotificationOutboxRepository;
+import uz.sonic.githubbot.service.TelegramOutboundScheduler.Priority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent queue of rendered notifications. Messages are added by
+ * {@link NotificationPipeline} and drained by a dispatcher that keeps per-topic
+ * order, retries with exponential backoff and parks permanently failing
+ * entries as {@link OutboxStatus#DEAD} for the admin to requeue. Each topic
+ * is sent by its own task, so a rate-limited topic does not hold up the others.
+ * <p>
+ * Only the lease holder sends. A task claims its rows by writing this
+ * instance's id to {@code claimedBy} before sending and re-checks leadership
+ * before each entry. On step-down the running tasks are cancelled and the
+ * claims released; a new leader first releases claims left by a previous one,
+ * so a row is sent by at most one instance, except for a send already in
+ * progress at the moment of the handover.
+ * <p>
+ * A webhook is acknowledged only after its push is saved as pending, and a
+ * message is added in the transaction that deletes the pushes it renders,
+ * so nothing between the webhook and Telegram is held only in memory.
+ */
+@Service
+public class NotificationOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    private final NotificationOutboxRepository repository;
+    private final TelegramNotificationService notificationService;
+    private final NotificationOutboxProperties properties;
+    private final String owner;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-send-", 0).factory());
+    // Topics with a send task running; they are left out of the next due query.
+    private final Map<Integer, Future<?>> activeTopics = new ConcurrentHashMap<>();
+    private Thread dispatcher;
+    private volatile boolean running = true;
+    // Only the lease holder sends, as Telegram rate limits apply per bot token.
+    private volatile boolean leader;
+    // Set on becoming leader; the dispatcher then releases claims left by the previous one.
+    private volatile boolean takeOver;
+
+    public NotificationOutbox(
+            NotificationOutboxRepository repository,
+            TelegramNotificationService notificationService,
+            NotificationOutboxProperties properties,
+            LeaderLeaseService leaderLease) {
+        this.repository = repository;
+        this.notificationService = notificationService;
+        this.properties = properties;
+        this.owner = leaderLease.instanceId();
+    }
+
+    /**
+     * Saves rendered messages, joining the caller's transaction. Call
+     * {@link #wakeUp} once it has committed.
+     */
+    public void add(List<NotificationOutboxEntry> entries) {
+        repository.saveAll(entries);
+    }
+
+    public void wakeUp() {
+        wakeUp.release();
+    }
+
+    public long countByStatus(OutboxStatus status) {
+        return repository.countByStatus(status);
+    }
+
+    public List<NotificationOutboxEntry> findDead(int limit) {
+        return repository.findByStatusOrderByIdDesc(OutboxStatus.DEAD, Limit.of(limit));
+    }
+
+    public boolean requeue(Long id) {
+        Optional<NotificationOutboxEntry> entry = repository.findById(id)
+                .filter(e -> e.getStatus() == OutboxStatus.DEAD);
+        entry.ifPresent(e -> {
+            e.setStatus(OutboxStatus.PENDING);
+            e.setAttempts(0);
+            e.setNextAttemptAt(Instant.now());
+            repository.save(e);
+            wakeUp.release();
+        });
+        return entry.isPresent();
+    }
+
+    public int requeueAllDead() {
+        int count = repository.requeueAllDead(Instant.now());
+        wakeUp.release();
+        return count;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatcher = Thread.ofPlatform().name("outbox-dispatcher").daemon().start(this::dispatchLoop);
+    }
+
+    @EventListener
+    public void onLeadershipChanged(LeaderLeaseService.LeadershipChanged event) {
+        leader = event.leader();
+        if (event.leader()) {
+            takeOver = true;
+        } else {
+            // A send waiting on the rate limiter could otherwise run for minutes after step-down.
+            activeTopics.values().forEach(task -> task.cancel(true));
+            releaseOwnClaims();
+        }
+        wakeUp.release();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        senders.shutdownNow();
+        releaseOwnClaims();
+    }
+
+    private void releaseOwnClaims() {
+        try {
+            int released = repository.releaseClaims(owner);
+            if (released > 0) {
+                log.info("Released {} claimed outbox entries", released);
+            }
+        } catch (RuntimeException e) {
+            // The next leader releases them on takeover.
+            log.warn("Failed to release claimed outbox entries: {}", e.getMessage());
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                if (leader) {
+                    if (takeOver) {
+                        int released = repository.releaseAllClaims();
+                        if (released > 0) {
+                            log.info("Released {} outbox entries claimed by a previous leader", released);
+                        }
+                        takeOver = false;
+                    }
+                    dispatchDue();
+                }
+                wakeUp.tryAcquire(properties.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Outbox dispatch failed", e);
+            }
+        }
+    }
+
+    private void dispatchDue() {
+        Instant now = Instant.now();
+        Limit limit = Limit.of(properties.batchSize());
+        List<Integer> busy = List.copyOf(activeTopics.keySet());
+        // Topics whose earliest pending entry is backing off are left out, so they neither
+        // fill the batch ahead of other topics nor start tasks that cannot send.
+        List<NotificationOutboxEntry> due = busy.isEmpty()
+                ? repository.findDue(now, limit)
+                : repository.findDueExcludingTopics(now, busy, limit);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<NotificationOutboxEntry>> byTopic = new LinkedHashMap<>();
+        for (NotificationOutboxEntry entry : due) {
+            byTopic.computeIfAbsent(entry.getTopicId(), k -> new ArrayList<>()).add(entry);
+        }
+
+        byTopic.forEach((topicId, entries) -> {
+            // done() also runs for a task cancelled before it started.
+            FutureTask<Boolean> task = new FutureTask<>(() -> dispatchTopic(entries)) {
+                @Override
+                protected void done() {
+                    activeTopics.remove(topicId, this);
+                    // A topic that sent its whole batch may have more due entries than the batch held.
+                    if (state() == State.SUCCESS && resultNow()) {
+                        wakeUp.release();
+                    }
+                }
+            };
+            // Registered before it runs, so done() cannot race the put.
+            activeTopics.put(topicId, task);
+            senders.execute(task);
+        });
+    }
+
+    /**
+     * @return {@code true} if every entry was sent or parked as dead
+     */
+    private boolean dispatchTopic(List<NotificationOutboxEntry> entries) {
+        List<Long> ids = entries.stream().map(NotificationOutboxEntry::getId).toList();
+        if (!sending() || repository.claim(ids, owner) == 0) {
+            return false;
+        }
+        List<NotificationOutboxEntry> claimed = repository.findByClaimedByAndIdInOrderByIdAsc(owner, ids);
+        for (int i = 0; i < claimed.size(); i++) {
+            NotificationOutboxEntry entry = claimed.get(i);
+            // Claims left here are released on step-down or shutdown.
+            if (!sending()) {
+                return false;
+            }
+            try {
+                notificationService.deliver(entry.getText(), entry.getTopicId(), Priority.NORMAL);
+                repository.deleteById(entry.getId());
+            } catch (TelegramApiException e) {
+                if (!sending()) {
+                    return false;
+                }
+                markFailed(entry, e);
+                if (entry.getStatus() == OutboxStatus.PENDING) {
+                    List<Long> rest = claimed.subList(i + 1, claimed.size()).stream()
+                            .map(NotificationOutboxEntry::getId).toList();
+                    if (!rest.isEmpty()) {
+                        repository.releaseClaims(rest, owner);
+                    }
+                    return false;
+                }
+            }
+        }
+        return claimed.size() == entries.size();
+    }
+
+    private boolean sending() {
+        return leader && running && !Thread.currentThread().isInterrupted();
+    }
+
+    private void markFailed(NotificationOutboxEntry entry, TelegramApiException e) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(e.getMessage()));
+        if (isPermanent(e) || attempts >= properties.maxAttempts()) {
+            entry.setStatus(OutboxStatus.DEAD);
+            log.error("Outbox entry {} for topic {} moved to dead letter after {} attempts",
+                    entry.getId(), entry.getTopicId(), attempts, e);
+        } else {
+            entry.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+            log.warn("Outbox entry {} for topic {} failed (attempt {}), retrying at {}",
+                    entry.getId(), entry.getTopicId(), attempts, entry.getNextAttemptAt());
+        }
+        // Conditional on the claim, so a row already taken over by a new leader is left alone.
+        repository.recordFailure(entry.getId(), owner, entry.getStatus(), attempts,
+                entry.getNextAttemptAt(), entry.getLastError());
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.initialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.maxBackoff()) > 0 ? properties.maxBackoff() : delay;
+    }
+
+    private static boolean isPermanent(TelegramApiException e) {
+        return e instanceof TelegramApiRequestException re
+                && re.getErrorCode() != null
+                && re.getErrorCode() == 400;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+}
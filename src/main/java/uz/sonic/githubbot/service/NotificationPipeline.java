@@ -0,0 +1,313 @@
+package uz.sonic.githubbot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.sonic.githubbot.config.NotificationPipelineProperties;
+import uz.sonic.githubbot.entity.NotificationOutboxEntry;
+import uz.sonic.githubbot.entity.PendingPush;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.repository.PendingPushRepository;
+import uz.sonic.githubbot.service.RepoRoutingTable.Route;
+import uz.sonic.githubbot.util.MessageTemplate;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable queue between the webhook endpoint and the notification outbox.
+ * {@link #submit} returns once the push is saved to {@code pending_push}; a
+ * writer thread saves all pushes waiting at that moment in one transaction,
+ * so concurrent webhooks share a commit.
+ * <p>
+ * The lease holder turns pending pushes into outbox messages, each topic in
+ * arrival order. Repos with a coalescing window get their pushes merged into
+ * one digest per window; windows are read back from the table, so an open
+ * one survives a restart or a change of leader. A message is saved to the
+ * outbox in the same transaction that deletes its pushes.
+ */
+@Service
+public class NotificationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    private static final int DEFAULT_MAX_BATCH = 50;
+    private static final int COMMIT_BATCH_SIZE = 100;
+    // Pushes of one topic read per pass; a window reaching the end of the page is closed.
+    private static final int TOPIC_PAGE_SIZE = 200;
+
+    private final GitHubWebhookService webhookService;
+    private final NotificationOutbox outbox;
+    private final PendingPushRepository repository;
+    private final RepoRoutingTable routingTable;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationPipelineProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Timer formatTimer;
+    private final Map<String, Counter> messageCounters = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<Write> writes;
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final Thread writer;
+    private Thread processor;
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+    // Only the lease holder renders, so a push is turned into one message.
+    private volatile boolean leader;
+
+    private record Write(PendingPush push, CompletableFuture<Boolean> saved) {}
+
+    public NotificationPipeline(
+            GitHubWebhookService webhookService,
+            NotificationOutbox outbox,
+            PendingPushRepository repository,
+            RepoRoutingTable routingTable,
+            PlatformTransactionManager transactionManager,
+            NotificationPipelineProperties properties,
+            MeterRegistry meterRegistry) {
+        this.webhookService = webhookService;
+        this.outbox = outbox;
+        this.repository = repository;
+        this.routingTable = routingTable;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.writes = new LinkedBlockingQueue<>(properties.queueCapacity());
+        this.formatTimer = Timer.builder("notification.format")
+                .description("Time to render a push notification or digest")
+                .register(meterRegistry);
+        Gauge.builder("notification.pipeline.unsaved", writes, BlockingQueue::size)
+                .description("Push events waiting to be saved")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("notify-writer").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * Saves a push event for delivery to the route's topic, waiting for the commit.
+     *
+     * @return {@code false} if it was not saved: the queue is full, the
+     * datasource failed or the pipeline is shutting down
+     */
+    public boolean submit(Route route, PushEvent event) {
+        Instant now = Instant.now();
+        byte[] payload = PushEventCodec.encode(new EventJournal.Entry(now, null, event));
+        Write write = new Write(new PendingPush(route.topicId(), event.repository().fullName(), event.ref(),
+                now, payload), new CompletableFuture<>());
+        // Under the lock so stop() cannot close the queue between the check and the offer.
+        synchronized (this) {
+            if (!accepting || !writes.offer(write)) {
+                return false;
+            }
+        }
+        return write.saved().join();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        processor = Thread.ofPlatform().name("notify-processor").daemon().start(this::processLoop);
+    }
+
+    @EventListener
+    public void onLeadershipChanged(LeaderLeaseService.LeadershipChanged event) {
+        leader = event.leader();
+        wakeUp.release();
+    }
+
+    /**
+     * Saves what is already queued before returning; pushes that cannot be
+     * saved within the drain timeout are refused to their webhook, not dropped.
+     */
+    @PreDestroy
+    public void stop() {
+        synchronized (this) {
+            accepting = false;
+        }
+        try {
+            writer.join(properties.drainTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Pending push writer did not finish within {}", properties.drainTimeout());
+            writer.interrupt();
+        }
+        List<Write> unsaved = new ArrayList<>();
+        writes.drainTo(unsaved);
+        unsaved.forEach(write -> write.saved().complete(false));
+        running = false;
+        if (processor != null) {
+            processor.interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Write> batch = new ArrayList<>(COMMIT_BATCH_SIZE);
+        while (accepting || !writes.isEmpty()) {
+            try {
+                Write first = writes.poll(properties.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                writes.drainTo(batch, COMMIT_BATCH_SIZE - 1);
+                boolean saved = save(batch);
+                batch.forEach(write -> write.saved().complete(saved));
+                batch.clear();
+                if (saved) {
+                    wakeUp.release();
+                }
+            } catch (InterruptedException e) {
+                batch.forEach(write -> write.saved().complete(false));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean save(List<Write> batch) {
+        try {
+            repository.saveAll(batch.stream().map(Write::push).toList());
+            return true;
+        } catch (RuntimeException e) {
+            // The webhooks are refused, so GitHub's delivery log shows them for redelivery.
+            log.error("Failed to save {} push events", batch.size(), e);
+            return false;
+        }
+    }
+
+    private void processLoop() {
+        while (running) {
+            long waitMillis = properties.pollInterval().toMillis();
+            try {
+                if (leader) {
+                    waitMillis = Math.min(waitMillis, processPending());
+                }
+            } catch (RuntimeException e) {
+                log.error("Processing pending push events failed", e);
+            }
+            try {
+                wakeUp.tryAcquire(Math.max(waitMillis, 1), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return milliseconds until the earliest open coalescing window closes
+     */
+    private long processPending() {
+        long nextMillis = Long.MAX_VALUE;
+        for (Integer topicId : repository.findTopicIds()) {
+            if (!leader || !running) {
+                break;
+            }
+            Instant now = Instant.now();
+            List<PendingPush> pushes = repository.findByTopicIdOrderByIdAsc(topicId, Limit.of(TOPIC_PAGE_SIZE));
+            List<List<PendingPush>> batches = new ArrayList<>();
+            int i = 0;
+            while (i < pushes.size()) {
+                PendingPush first = pushes.get(i);
+                Route route = routingTable.find(first.getRepoFullName()).orElse(null);
+                Integer window = route == null ? null : route.coalesceWindowSeconds();
+                if (window == null || window <= 0) {
+                    batches.add(List.of(first));
+                    i++;
+                    continue;
+                }
+                Integer maxBatch = route.coalesceMaxBatch();
+                int limit = maxBatch == null || maxBatch <= 0 ? DEFAULT_MAX_BATCH : maxBatch;
+                int end = i + 1;
+                // A digest covers a single branch, so a push to another branch closes the current one.
+                while (end < pushes.size() && end - i < limit && sameBranch(first, pushes.get(end))) {
+                    end++;
+                }
+                Instant closesAt = first.getReceivedAt().plusSeconds(window);
+                boolean closed = end - i >= limit || end < pushes.size() || pushes.size() == TOPIC_PAGE_SIZE;
+                if (!closed && now.isBefore(closesAt)) {
+                    nextMillis = Math.min(nextMillis, Duration.between(now, closesAt).toMillis());
+                    break;
+                }
+                batches.add(pushes.subList(i, end));
+                i = end;
+            }
+            if (!batches.isEmpty()) {
+                consume(topicId, batches);
+            }
+        }
+        return nextMillis;
+    }
+
+    private static boolean sameBranch(PendingPush a, PendingPush b) {
+        return a.getRepoFullName().equals(b.getRepoFullName()) && a.getRef().equals(b.getRef());
+    }
+
+    private void consume(Integer topicId, List<List<PendingPush>> batches) {
+        List<NotificationOutboxEntry> messages = new ArrayList<>(batches.size());
+        List<Long> ids = new ArrayList<>();
+        for (List<PendingPush> batch : batches) {
+            batch.forEach(push -> ids.add(push.getId()));
+            String message = render(batch);
+            if (message != null) {
+                messages.add(new NotificationOutboxEntry(topicId, message, Instant.now()));
+            }
+        }
+        boolean consumed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (repository.deleteByIdIn(ids) != ids.size()) {
+                // A previous leader consumed them during the handover.
+                status.setRollbackOnly();
+                return false;
+            }
+            outbox.add(messages);
+            return true;
+        }));
+        if (consumed) {
+            outbox.wakeUp();
+        }
+    }
+
+    /**
+     * @return the message, or {@code null} if the pushes cannot be rendered and are dropped
+     */
+    private String render(List<PendingPush> batch) {
+        String repoFullName = batch.getFirst().getRepoFullName();
+        try {
+            List<PushEvent> events = batch.stream()
+                    .map(push -> PushEventCodec.decode(ByteBuffer.wrap(push.getPayload())).event())
+                    .toList();
+            // Rendered with the route's template current at delivery.
+            MessageTemplate template = routingTable.find(repoFullName).map(Route::template).orElse(null);
+            long start = System.nanoTime();
+            String message = webhookService.formatPushDigest(events, template);
+            formatTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            messageCounters.computeIfAbsent(repoFullName,
+                    repo -> meterRegistry.counter("notification.messages", "repo", repo)).increment();
+            return message;
+        } catch (RuntimeException e) {
+            log.error("Failed to render {} push events for {}, dropping them", batch.size(), repoFullName, e);
+            return null;
+        }
+    }
+}
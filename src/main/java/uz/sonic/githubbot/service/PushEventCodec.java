@@ -0,0 +1,164 @@
+package uz.sonic.githubbot.service;
+
+import uz.sonic.githubbot.model.Commit;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.model.Pusher;
+import uz.sonic.githubbot.model.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a journaled push. The first byte is the record format: a
+ * decoded push, or the verified webhook body of a push that was journaled
+ * without being parsed. The receive time and repo name follow in both, so
+ * the index can be rebuilt without decoding the whole record. Strings are
+ * written as an int UTF-8 length ({@code -1} for null) and bytes.
+ */
+final class PushEventCodec {
+
+    private static final byte EVENT = 1;
+    private static final byte PAYLOAD = 2;
+
+    private PushEventCodec() {
+    }
+
+    static byte[] encode(EventJournal.Entry entry) {
+        PushEvent event = entry.event();
+        var bytes = new ByteArrayOutputStream(512);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(EVENT);
+            out.writeLong(entry.receivedAt().toEpochMilli());
+            writeString(out, event.repository().fullName());
+            writeString(out, entry.deliveryId());
+            writeString(out, event.ref());
+            writeString(out, event.before());
+            writeString(out, event.after());
+            writeString(out, event.compare());
+            out.writeInt(event.totalCommits());
+            writeString(out, event.repository().name());
+            writeString(out, event.repository().htmlUrl());
+            writeString(out, event.repository().defaultBranch());
+            writeString(out, event.pusher() == null ? null : event.pusher().name());
+            writeString(out, event.pusher() == null ? null : event.pusher().email());
+            out.writeInt(event.commits().size());
+            for (Commit commit : event.commits()) {
+                writeString(out, commit.id());
+                writeString(out, commit.message());
+                writeString(out, commit.timestamp());
+                writeString(out, commit.url());
+                writeString(out, commit.author() == null ? null : commit.author().name());
+                writeString(out, commit.author() == null ? null : commit.author().email());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encode(EventJournal.RawEntry entry) {
+        var bytes = new ByteArrayOutputStream(entry.body().length + 128);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(PAYLOAD);
+            out.writeLong(entry.receivedAt().toEpochMilli());
+            writeString(out, entry.repoFullName());
+            writeString(out, entry.deliveryId());
+            out.writeInt(entry.body().length);
+            out.write(entry.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static long receivedAtMillis(ByteBuffer record) {
+        checkFormat(record);
+        return record.getLong(1);
+    }
+
+    static boolean isRaw(ByteBuffer record) {
+        checkFormat(record);
+        return record.get(0) == PAYLOAD;
+    }
+
+    static String repoFullName(ByteBuffer record) {
+        return readString(record.duplicate().position(1 + Long.BYTES));
+    }
+
+    static EventJournal.RawEntry decodeRaw(ByteBuffer record) {
+        if (!isRaw(record)) {
+            throw new IllegalArgumentException("Journal record holds a decoded push, not a webhook body");
+        }
+        ByteBuffer in = record.duplicate().position(1);
+        Instant receivedAt = Instant.ofEpochMilli(in.getLong());
+        String repoFullName = readString(in);
+        String deliveryId = readString(in);
+        byte[] body = new byte[in.getInt()];
+        in.get(body);
+        return new EventJournal.RawEntry(receivedAt, deliveryId, repoFullName, body);
+    }
+
+    static EventJournal.Entry decode(ByteBuffer record) {
+        if (isRaw(record)) {
+            throw new IllegalArgumentException("Journal record holds a webhook body, not a decoded push");
+        }
+        ByteBuffer in = record.duplicate().position(1);
+        Instant receivedAt = Instant.ofEpochMilli(in.getLong());
+        String repoFullName = readString(in);
+        String deliveryId = readString(in);
+        String ref = readString(in);
+        String before = readString(in);
+        String after = readString(in);
+        String compare = readString(in);
+        int totalCommits = in.getInt();
+        var repository = new Repository(readString(in), repoFullName, readString(in), readString(in));
+        var pusher = new Pusher(readString(in), readString(in));
+        int count = in.getInt();
+        List<Commit> commits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = readString(in);
+            String message = readString(in);
+            String timestamp = readString(in);
+            String url = readString(in);
+            String authorName = readString(in);
+            String authorEmail = readString(in);
+            commits.add(new Commit(id, message, timestamp, url,
+                    authorName == null && authorEmail == null ? null : new Commit.Author(authorName, authorEmail)));
+        }
+        var event = new PushEvent(ref, before, after, compare, commits, totalCommits, repository, pusher);
+        return new EventJournal.Entry(receivedAt, deliveryId, event);
+    }
+
+    private static void checkFormat(ByteBuffer record) {
+        if (record.get(0) != EVENT && record.get(0) != PAYLOAD) {
+            throw new IllegalArgumentException("Unsupported journal record format " + record.get(0));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = StandardCharsets.UTF_8.decode(in.slice(in.position(), length)).toString();
+        in.position(in.position() + length);
+        return value;
+    }
+}
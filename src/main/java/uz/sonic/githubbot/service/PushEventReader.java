@@ -0,0 +1,213 @@
+package uz.sonic.githubbot.service;
+
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.json.JsonFactory;
+import uz.sonic.githubbot.config.GitHubWebhookProperties;
+import uz.sonic.githubbot.model.Commit;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.model.Pusher;
+import uz.sonic.githubbot.model.Repository;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull-parses push payloads, keeping only the fields the notification needs.
+ * At most {@code github.webhook.max-parsed-commits} commits are materialised;
+ * the rest are counted and skipped token by token, so memory per request does
+ * not grow with the size of the push.
+ */
+@Service
+public class PushEventReader {
+
+    private static final String MERGE_PREFIX = "Merge pull request #";
+
+    /**
+     * Routing fields of a push, read without touching the commit list.
+     */
+    public record Preview(String ref, String repoFullName, String defaultBranch) {}
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int maxCommits;
+
+    public PushEventReader(GitHubWebhookProperties properties) {
+        this.maxCommits = properties.maxParsedCommits();
+    }
+
+    public PushEvent read(InputStream in) {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return read(parser);
+        }
+    }
+
+    public PushEvent read(byte[] data, int offset, int length) {
+        try (JsonParser parser = jsonFactory.createParser(data, offset, length)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Reads {@code ref} and the repository name fields, stopping as soon as
+     * both are known. GitHub sends them before the commits, so large pushes
+     * are mostly left unread.
+     */
+    public Preview preview(byte[] data, int offset, int length) {
+        try (JsonParser p = jsonFactory.createParser(data, offset, length)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Push payload is not a JSON object");
+            }
+            String ref = null;
+            Repository repository = null;
+            String name;
+            while ((ref == null || repository == null) && (name = p.nextName()) != null) {
+                p.nextToken();
+                switch (name) {
+                    case "ref" -> ref = text(p);
+                    case "repository" -> repository = readRepository(p);
+                    default -> p.skipChildren();
+                }
+            }
+            return repository == null
+                    ? new Preview(ref, null, null)
+                    : new Preview(ref, repository.fullName(), repository.defaultBranch());
+        }
+    }
+
+    private PushEvent read(JsonParser p) {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Push payload is not a JSON object");
+        }
+        String ref = null;
+        String before = null;
+        String after = null;
+        String compare = null;
+        Repository repository = null;
+        Pusher pusher = null;
+        Commit headCommit = null;
+        List<Commit> commits = new ArrayList<>();
+        int totalCommits = 0;
+
+        String name;
+        while ((name = p.nextName()) != null) {
+            JsonToken token = p.nextToken();
+            switch (name) {
+                case "ref" -> ref = text(p);
+                case "before" -> before = text(p);
+                case "after" -> after = text(p);
+                case "compare" -> compare = text(p);
+                case "repository" -> repository = readRepository(p);
+                case "pusher" -> pusher = readPusher(p);
+                case "head_commit" -> headCommit = token == JsonToken.START_OBJECT ? readCommit(p) : null;
+                case "commits" -> totalCommits = readCommits(p, commits);
+                default -> p.skipChildren();
+            }
+        }
+
+        // A PR merge commit is the head commit; keep it even when the list was truncated.
+        if (totalCommits > commits.size() && headCommit != null
+                && headCommit.message() != null && headCommit.message().startsWith(MERGE_PREFIX)
+                && commits.stream().noneMatch(c -> c.message() != null && c.message().startsWith(MERGE_PREFIX))) {
+            commits.add(headCommit);
+        }
+        return new PushEvent(ref, before, after, compare, commits, totalCommits, repository, pusher);
+    }
+
+    private int readCommits(JsonParser p, List<Commit> commits) {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return 0;
+        }
+        int total = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            total++;
+            if (commits.size() < maxCommits && p.currentToken() == JsonToken.START_OBJECT) {
+                commits.add(readCommit(p));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return total;
+    }
+
+    private Commit readCommit(JsonParser p) {
+        String id = null;
+        String message = null;
+        String timestamp = null;
+        String url = null;
+        Commit.Author author = null;
+        String name;
+        while ((name = p.nextName()) != null) {
+            JsonToken token = p.nextToken();
+            switch (name) {
+                case "id" -> id = text(p);
+                case "message" -> message = text(p);
+                case "timestamp" -> timestamp = text(p);
+                case "url" -> url = text(p);
+                case "author" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        String[] person = readPerson(p);
+                        author = new Commit.Author(person[0], person[1]);
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return new Commit(id, message, timestamp, url, author);
+    }
+
+    private Repository readRepository(JsonParser p) {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String repoName = null;
+        String fullName = null;
+        String htmlUrl = null;
+        String defaultBranch = null;
+        String name;
+        while ((name = p.nextName()) != null) {
+            p.nextToken();
+            switch (name) {
+                case "name" -> repoName = text(p);
+                case "full_name" -> fullName = text(p);
+                case "html_url" -> htmlUrl = text(p);
+                case "default_branch" -> defaultBranch = text(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new Repository(repoName, fullName, htmlUrl, defaultBranch);
+    }
+
+    private Pusher readPusher(JsonParser p) {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String[] person = readPerson(p);
+        return new Pusher(person[0], person[1]);
+    }
+
+    private String[] readPerson(JsonParser p) {
+        String[] person = new String[2];
+        String name;
+        while ((name = p.nextName()) != null) {
+            p.nextToken();
+            switch (name) {
+                case "name" -> person[0] = text(p);
+                case "email" -> person[1] = text(p);
+                default -> p.skipChildren();
+            }
+        }
+        return person;
+    }
+
+    private static String text(JsonParser p) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return p.getString();
+        }
+        p.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,403 @@
+package uz.sonic.githubbot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import uz.sonic.githubbot.config.RepoStatsProperties;
+import uz.sonic.githubbot.entity.RepoActivityBucket;
+import uz.sonic.githubbot.model.Commit;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.repository.RepoActivityBucketRepository;
+import uz.sonic.githubbot.util.HyperLogLog;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-repo push activity counted on the webhook path into hourly buckets, so
+ * /stats sums a few buckets instead of scanning history. Counters are
+ * {@link LongAdder}s and distinct commit authors a {@link HyperLogLog} per
+ * bucket, so recording never takes a lock. Each instance writes its changed
+ * buckets to the database periodically, reloads them on startup, and merges
+ * the other instances' buckets when a summary is requested.
+ */
+@Service
+public class RepoActivityStats {
+
+    private static final Logger log = LoggerFactory.getLogger(RepoActivityStats.class);
+
+    private static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // Keeps the serialised pusher list well within its column.
+    private static final int MAX_STORED_PUSHERS = 200;
+    private static final int MAX_PUSHERS_LENGTH = 8192;
+
+    public record PusherCount(String login, long pushes) {}
+
+    /**
+     * @param distinctAuthors estimate, within a few percent
+     */
+    public record Window(Duration length, long pushes, long commits, long distinctAuthors,
+                         List<PusherCount> topPushers) {}
+
+    public record Summary(String repoFullName, List<Window> windows) {}
+
+    private static final class Bucket {
+        final long hour;
+        final LongAdder pushes = new LongAdder();
+        final LongAdder commits = new LongAdder();
+        final Map<String, LongAdder> pushers = new ConcurrentHashMap<>();
+        final HyperLogLog authors;
+        final AtomicBoolean dirty = new AtomicBoolean();
+        volatile Long rowId;
+
+        Bucket(long hour, HyperLogLog authors) {
+            this.hour = hour;
+            this.authors = authors;
+        }
+    }
+
+    /**
+     * Ring of hourly buckets; a slot is reused once its hour has left the longest window.
+     */
+    private static final class RepoActivity {
+        final AtomicReferenceArray<Bucket> ring;
+
+        RepoActivity(int hours) {
+            ring = new AtomicReferenceArray<>(hours);
+        }
+
+        Bucket bucket(long hour) {
+            int slot = (int) Math.floorMod(hour, (long) ring.length());
+            while (true) {
+                Bucket current = ring.get(slot);
+                // A newer bucket in the slot only happens after the clock steps back; count into it.
+                if (current != null && current.hour >= hour) {
+                    return current;
+                }
+                Bucket fresh = new Bucket(hour, new HyperLogLog());
+                if (ring.compareAndSet(slot, current, fresh)) {
+                    return fresh;
+                }
+            }
+        }
+    }
+
+    /**
+     * One bucket's counts, local or loaded from another instance's row.
+     */
+    private record Counts(long hour, long pushes, long commits, Map<String, Long> pushers, HyperLogLog authors) {}
+
+    private final RepoActivityBucketRepository repository;
+    private final String instanceId;
+    private final List<Duration> windows;
+    private final int retainedHours;
+    private final Duration snapshotInterval;
+    private final int topPushers;
+    private final Map<String, RepoActivity> repos = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService snapshotTimer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("stats-snapshot").daemon().factory());
+
+    public RepoActivityStats(RepoActivityBucketRepository repository, RepoStatsProperties properties,
+                             LeaderLeaseService leaderLease) {
+        if (properties.windows() == null || properties.windows().isEmpty()
+                || properties.windows().stream().anyMatch(w -> w.compareTo(Duration.ofHours(1)) < 0)) {
+            throw new IllegalStateException("stats.windows must list durations of at least 1h");
+        }
+        this.repository = repository;
+        // Rows are keyed by instance so each instance can reload its own after a restart. With a
+        // generated id the rows of an earlier run are merged like another instance's instead.
+        this.instanceId = leaderLease.instanceId();
+        this.windows = properties.windows().stream().sorted().toList();
+        this.retainedHours = hours(windows.getLast());
+        this.snapshotInterval = properties.snapshotInterval();
+        this.topPushers = properties.topPushers();
+    }
+
+    @PostConstruct
+    public void load() {
+        long nowHour = hourOf(Instant.now());
+        List<RepoActivityBucket> rows = repository.findByInstanceIdAndBucketStartGreaterThanEqual(
+                instanceId, startOf(nowHour - retainedHours + 1));
+        for (RepoActivityBucket row : rows) {
+            Counts counts = toCounts(row);
+            Bucket bucket = new Bucket(counts.hour(), counts.authors());
+            bucket.pushes.add(counts.pushes());
+            bucket.commits.add(counts.commits());
+            counts.pushers().forEach((login, n) -> bucket.pushers.computeIfAbsent(login, k -> new LongAdder()).add(n));
+            bucket.rowId = row.getId();
+
+            var ring = repos.computeIfAbsent(row.getRepoFullName(), r -> new RepoActivity(retainedHours)).ring;
+            int slot = (int) Math.floorMod(counts.hour(), (long) retainedHours);
+            Bucket current = ring.get(slot);
+            if (current == null || current.hour < bucket.hour) {
+                ring.set(slot, bucket);
+            }
+        }
+        if (!rows.isEmpty()) {
+            log.info("Loaded {} activity buckets for {} repos", rows.size(), repos.size());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSnapshots() {
+        long interval = snapshotInterval.toMillis();
+        snapshotTimer.scheduleWithFixedDelay(() -> {
+            try {
+                persist(Instant.now());
+            } catch (RuntimeException e) {
+                log.warn("Failed to persist activity stats: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        snapshotTimer.shutdownNow();
+        try {
+            persist(Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist activity stats on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public void record(PushEvent event) {
+        record(event, Instant.now());
+    }
+
+    void record(PushEvent event, Instant receivedAt) {
+        Bucket bucket = repos.computeIfAbsent(event.repository().fullName(), r -> new RepoActivity(retainedHours))
+                .bucket(hourOf(receivedAt));
+        bucket.pushes.increment();
+        bucket.commits.add(event.totalCommits());
+        if (event.pusher() != null && event.pusher().name() != null) {
+            bucket.pushers.computeIfAbsent(event.pusher().name(), k -> new LongAdder()).increment();
+        }
+        if (event.commits() != null) {
+            for (Commit commit : event.commits()) {
+                String author = authorKey(commit.author());
+                if (author != null) {
+                    bucket.authors.add(author);
+                }
+            }
+        }
+        // Set last, so a snapshot that clears the flag first still sees this push.
+        bucket.dirty.set(true);
+    }
+
+    /**
+     * Writes buckets changed since the last snapshot and deletes rows that
+     * have left the longest window.
+     */
+    synchronized void persist(Instant now) {
+        List<Bucket> dirty = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        repos.forEach((repo, activity) -> {
+            for (int i = 0; i < activity.ring.length(); i++) {
+                Bucket bucket = activity.ring.get(i);
+                if (bucket != null && bucket.dirty.getAndSet(false)) {
+                    dirty.add(bucket);
+                    names.add(repo);
+                }
+            }
+        });
+        if (!dirty.isEmpty()) {
+            Map<Long, RepoActivityBucket> existing = repository.findAllById(dirty.stream()
+                            .map(b -> b.rowId).filter(id -> id != null).toList()).stream()
+                    .collect(Collectors.toMap(RepoActivityBucket::getId, Function.identity()));
+            List<RepoActivityBucket> rows = new ArrayList<>(dirty.size());
+            for (int i = 0; i < dirty.size(); i++) {
+                Bucket bucket = dirty.get(i);
+                RepoActivityBucket row = bucket.rowId == null ? null : existing.get(bucket.rowId);
+                if (row == null) {
+                    row = new RepoActivityBucket(names.get(i), instanceId, startOf(bucket.hour));
+                }
+                row.setPushes(bucket.pushes.sum());
+                row.setCommits(bucket.commits.sum());
+                row.setPushers(encodePushers(bucket.pushers));
+                row.setAuthors(bucket.authors.toBytes());
+                rows.add(row);
+            }
+            try {
+                List<RepoActivityBucket> saved = repository.saveAll(rows);
+                for (int i = 0; i < dirty.size(); i++) {
+                    dirty.get(i).rowId = saved.get(i).getId();
+                }
+            } catch (RuntimeException e) {
+                dirty.forEach(b -> b.dirty.set(true));
+                throw e;
+            }
+        }
+        repository.deleteOlderThan(startOf(hourOf(now) - retainedHours + 1));
+    }
+
+    public Summary summary(String repoFullName, Instant now) {
+        long nowHour = hourOf(now);
+        List<Counts> counts = new ArrayList<>();
+        RepoActivity activity = repos.get(repoFullName);
+        if (activity != null) {
+            collectLocal(activity, nowHour, counts);
+        }
+        for (RepoActivityBucket row : remoteRows(repoFullName, nowHour)) {
+            counts.add(toCounts(row));
+        }
+        return summarize(repoFullName, counts, nowHour);
+    }
+
+    /**
+     * @return every repo with activity in the longest window, busiest first
+     */
+    public List<Summary> summaries(Instant now) {
+        long nowHour = hourOf(now);
+        Map<String, List<Counts>> byRepo = new HashMap<>();
+        repos.forEach((repo, activity) -> collectLocal(activity, nowHour, byRepo.computeIfAbsent(repo, r -> new ArrayList<>())));
+        for (RepoActivityBucket row : remoteRows(null, nowHour)) {
+            byRepo.computeIfAbsent(row.getRepoFullName(), r -> new ArrayList<>()).add(toCounts(row));
+        }
+        return byRepo.entrySet().stream()
+                .map(e -> summarize(e.getKey(), e.getValue(), nowHour))
+                .filter(s -> s.windows().getLast().pushes() > 0)
+                .sorted(Comparator.comparingLong((Summary s) -> s.windows().getLast().pushes()).reversed()
+                        .thenComparing(Summary::repoFullName))
+                .toList();
+    }
+
+    private void collectLocal(RepoActivity activity, long nowHour, List<Counts> into) {
+        for (int i = 0; i < activity.ring.length(); i++) {
+            Bucket bucket = activity.ring.get(i);
+            if (bucket != null && bucket.hour > nowHour - retainedHours) {
+                Map<String, Long> pushers = new HashMap<>();
+                bucket.pushers.forEach((login, n) -> pushers.put(login, n.sum()));
+                into.add(new Counts(bucket.hour, bucket.pushes.sum(), bucket.commits.sum(), pushers, bucket.authors));
+            }
+        }
+    }
+
+    // Other instances' buckets, as of their last snapshot. Local counts are still shown if this fails.
+    private List<RepoActivityBucket> remoteRows(String repoFullName, long nowHour) {
+        Instant from = startOf(nowHour - retainedHours + 1);
+        try {
+            return repoFullName == null
+                    ? repository.findByInstanceIdNotAndBucketStartGreaterThanEqual(instanceId, from)
+                    : repository.findByInstanceIdNotAndRepoFullNameAndBucketStartGreaterThanEqual(
+                            instanceId, repoFullName, from);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load activity stats from other instances: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Summary summarize(String repoFullName, List<Counts> counts, long nowHour) {
+        List<Window> result = new ArrayList<>(windows.size());
+        for (Duration window : windows) {
+            long firstHour = nowHour - hours(window) + 1;
+            long pushes = 0;
+            long commits = 0;
+            Map<String, Long> pushers = new HashMap<>();
+            HyperLogLog authors = new HyperLogLog();
+            for (Counts c : counts) {
+                if (c.hour() < firstHour || c.hour() > nowHour) {
+                    continue;
+                }
+                pushes += c.pushes();
+                commits += c.commits();
+                c.pushers().forEach((login, n) -> pushers.merge(login, n, Long::sum));
+                authors.merge(c.authors());
+            }
+            List<PusherCount> top = pushers.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(topPushers)
+                    .map(e -> new PusherCount(e.getKey(), e.getValue()))
+                    .toList();
+            result.add(new Window(window, pushes, commits, authors.estimate(), top));
+        }
+        return new Summary(repoFullName, result);
+    }
+
+    private static Counts toCounts(RepoActivityBucket row) {
+        // A sketch of another precision cannot be merged; its authors are lost rather than the row.
+        byte[] sketch = row.getAuthors();
+        HyperLogLog authors = sketch != null && sketch.length == 1 << HyperLogLog.DEFAULT_PRECISION
+                ? HyperLogLog.fromBytes(sketch)
+                : new HyperLogLog();
+        return new Counts(hourOf(row.getBucketStart()), row.getPushes(), row.getCommits(),
+                decodePushers(row.getPushers()), authors);
+    }
+
+    private static String encodePushers(Map<String, LongAdder> pushers) {
+        StringBuilder sb = new StringBuilder();
+        pushers.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(MAX_STORED_PUSHERS)
+                .forEach(e -> {
+                    String line = e.getKey().replace('\t', ' ').replace('\n', ' ') + '\t' + e.getValue() + '\n';
+                    if (sb.length() + line.length() <= MAX_PUSHERS_LENGTH) {
+                        sb.append(line);
+                    }
+                });
+        return sb.toString();
+    }
+
+    private static Map<String, Long> decodePushers(String encoded) {
+        Map<String, Long> pushers = new HashMap<>();
+        if (encoded == null) {
+            return pushers;
+        }
+        for (String line : encoded.split("\n")) {
+            int tab = line.lastIndexOf('\t');
+            if (tab > 0) {
+                try {
+                    pushers.merge(line.substring(0, tab), Long.parseLong(line.substring(tab + 1)), Long::sum);
+                } catch (NumberFormatException ignored) {
+                    // skip a damaged line
+                }
+            }
+        }
+        return pushers;
+    }
+
+    /**
+     * Identifies an author by email where GitHub provides one, so the same
+     * person under different display names is counted once.
+     */
+    private static String authorKey(Commit.Author author) {
+        if (author == null) {
+            return null;
+        }
+        if (author.email() != null && !author.email().isBlank()) {
+            return author.email().trim().toLowerCase(Locale.ROOT);
+        }
+        return author.name() == null || author.name().isBlank() ? null : author.name().trim();
+    }
+
+    private static int hours(Duration window) {
+        return (int) Math.ceilDiv(window.toMillis(), BUCKET_MILLIS);
+    }
+
+    private static long hourOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), BUCKET_MILLIS);
+    }
+
+    private static Instant startOf(long hour) {
+        return Instant.ofEpochMilli(hour * BUCKET_MILLIS);
+    }
+}
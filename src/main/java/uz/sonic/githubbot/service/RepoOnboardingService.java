@@ -0,0 +1,197 @@
+package uz.sonic.githubbot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.api.objects.forum.ForumTopic;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import uz.sonic.githubbot.entity.RepoTopicMapping;
+import uz.sonic.githubbot.repository.RepoTopicMappingRepository;
+import uz.sonic.githubbot.service.TelegramOutboundScheduler.Priority;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Adds many repositories at once. Existing mappings are found with one query,
+ * forum topics are created a few at a time at low priority, so notifications
+ * to the same chat are always sent first, and all new mappings are stored
+ * with a single {@code saveAll}. Runs creating more than
+ * {@link #CONFIRM_ABOVE} topics must be confirmed, and none may create more
+ * than {@link #MAX_TOPICS}. GitHub owner and repo names are case-insensitive,
+ * so names are matched and deduplicated ignoring case.
+ */
+@Service
+public class RepoOnboardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(RepoOnboardingService.class);
+
+    private static final Pattern REPO_NAME = Pattern.compile("^[\\w.-]+/[\\w.-]+$");
+    private static final Pattern OWNER_PATTERN = Pattern.compile("^[\\w.-]+/[\\w.-]*\\*$");
+
+    public static final int CONFIRM_ABOVE = 50;
+    // About 25 minutes at Telegram's 20 messages a minute per chat.
+    public static final int MAX_TOPICS = 500;
+    private static final int TOPIC_CONCURRENCY = 4;
+
+    public record Progress(int total, int done, int failed) {}
+
+    /**
+     * @param failed    repo name or pattern mapped to the error message
+     * @param overLimit topics the run would have created when it was refused
+     *                  for exceeding its limit, otherwise {@code 0}
+     */
+    public record Result(
+            List<RepoTopicMapping> created,
+            List<String> existing,
+            List<String> invalid,
+            Map<String, String> failed,
+            int overLimit
+    ) {}
+
+    private final RepoTopicMappingRepository repository;
+    private final RepoRoutingTable routingTable;
+    private final TelegramNotificationService notificationService;
+    private final GitHubRepoLister repoLister;
+
+    public RepoOnboardingService(
+            RepoTopicMappingRepository repository,
+            RepoRoutingTable routingTable,
+            TelegramNotificationService notificationService,
+            GitHubRepoLister repoLister) {
+        this.repository = repository;
+        this.routingTable = routingTable;
+        this.notificationService = notificationService;
+        this.repoLister = repoLister;
+    }
+
+    /**
+     * @param tokens     repo names or {@code owner/*} and {@code owner/prefix*} patterns
+     * @param confirmed  whether the admin confirmed creating more than {@link #CONFIRM_ABOVE} topics
+     * @param onProgress called from worker threads after each topic attempt
+     */
+    public Result onboard(Collection<String> tokens, boolean confirmed, Consumer<Progress> onProgress)
+            throws InterruptedException {
+        // Lower-cased name to the name as given or as GitHub spells it.
+        Map<String, String> names = new LinkedHashMap<>();
+        List<String> invalid = new ArrayList<>();
+        Map<String, String> failed = new ConcurrentHashMap<>();
+        for (String token : tokens) {
+            if (REPO_NAME.matcher(token).matches()) {
+                names.putIfAbsent(token.toLowerCase(Locale.ROOT), token);
+            } else if (OWNER_PATTERN.matcher(token).matches()) {
+                expand(token, names, failed);
+            } else {
+                invalid.add(token);
+            }
+        }
+
+        Map<String, String> existing = new LinkedHashMap<>();
+        for (RepoTopicMapping m : repository.findByLowerCaseRepoFullNameIn(names.keySet())) {
+            existing.put(m.getRepoFullName().toLowerCase(Locale.ROOT), m.getRepoFullName());
+        }
+        List<String> toCreate = names.entrySet().stream()
+                .filter(e -> !existing.containsKey(e.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        if (toCreate.size() > MAX_TOPICS || (toCreate.size() > CONFIRM_ABOVE && !confirmed)) {
+            return new Result(List.of(), List.copyOf(existing.values()), invalid, new TreeMap<>(failed),
+                    toCreate.size());
+        }
+
+        Map<String, Integer> topics = new ConcurrentHashMap<>();
+        AtomicInteger done = new AtomicInteger();
+        // Bounds the tickets waiting in the scheduler, which scans them on every grant.
+        Semaphore slots = new Semaphore(TOPIC_CONCURRENCY);
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("onboard-", 0).factory())) {
+            for (String name : toCreate) {
+                try {
+                    slots.acquire();
+                } catch (InterruptedException e) {
+                    // Closing the executor then cancels the running tasks.
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        ForumTopic topic = notificationService.createForumTopic(
+                                name.substring(name.indexOf('/') + 1), Priority.LOW);
+                        topics.put(name, topic.getMessageThreadId());
+                    } catch (TelegramApiException e) {
+                        log.warn("Failed to create forum topic for {}: {}", name, e.getMessage());
+                        failed.put(name, e.getMessage());
+                    } finally {
+                        slots.release();
+                    }
+                    onProgress.accept(new Progress(toCreate.size(), done.incrementAndGet(), failed.size()));
+                });
+            }
+        }
+        if (Thread.interrupted()) {
+            log.warn("Onboarding interrupted, removing {} topics created so far", topics.size());
+            deleteTopics(topics.values());
+            throw new InterruptedException();
+        }
+
+        List<RepoTopicMapping> mappings = new ArrayList<>(topics.size());
+        for (String name : toCreate) {
+            Integer topicId = topics.get(name);
+            if (topicId != null) {
+                mappings.add(new RepoTopicMapping(name, topicId));
+            }
+        }
+        try {
+            routingTable.saveAll(mappings);
+        } catch (RuntimeException e) {
+            log.error("Failed to save {} onboarded mappings, removing their topics", mappings.size(), e);
+            deleteTopics(topics.values());
+            throw e;
+        }
+        log.info("Onboarded {} repos ({} existing, {} invalid, {} failed)",
+                mappings.size(), existing.size(), invalid.size(), failed.size());
+        return new Result(mappings, List.copyOf(existing.values()), invalid, new TreeMap<>(failed), 0);
+    }
+
+    private void deleteTopics(Collection<Integer> topicIds) {
+        for (Integer topicId : topicIds) {
+            try {
+                notificationService.deleteForumTopic(topicId);
+            } catch (TelegramApiException e) {
+                log.warn("Failed to delete forum topic {}: {}", topicId, e.getMessage());
+            }
+        }
+    }
+
+    private void expand(String pattern, Map<String, String> names, Map<String, String> failed)
+            throws InterruptedException {
+        String owner = pattern.substring(0, pattern.indexOf('/'));
+        String prefix = pattern.substring(0, pattern.length() - 1);
+        try {
+            int before = names.size();
+            for (String name : repoLister.listRepos(owner)) {
+                if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    names.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+                }
+            }
+            if (names.size() == before) {
+                failed.put(pattern, "mos repo topilmadi");
+            }
+        } catch (IOException e) {
+            failed.put(pattern, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package uz.sonic.githubbot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import uz.sonic.githubbot.config.ClusterProperties;
+import uz.sonic.githubbot.entity.RepoTopicMapping;
+import uz.sonic.githubbot.repository.RepoTopicMappingRepository;
+import uz.sonic.githubbot.util.BranchFilter;
+import uz.sonic.githubbot.util.MessageTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory snapshot of all repo to topic mappings, used by the
+ * webhook path instead of the database. The snapshot is complete, so a miss
+ * means the repo is not mapped. All mapping writes must go through
+ * {@link #save} and {@link #delete} to keep it in sync. Writes only happen on
+ * the lease holder (the admin bot runs there); every instance reloads the
+ * snapshot periodically, so a holder also picks up a write its predecessor
+ * finished after the handover.
+ */
+@Service
+public class RepoRoutingTable {
+
+    private static final Logger log = LoggerFactory.getLogger(RepoRoutingTable.class);
+
+    /**
+     * @param template compiled message template, {@code null} for the built-in layout
+     */
+    public record Route(
+            String repoFullName,
+            Integer topicId,
+            Integer coalesceWindowSeconds,
+            Integer coalesceMaxBatch,
+            BranchFilter branchFilter,
+            MessageTemplate template
+    ) {
+        static Route of(RepoTopicMapping mapping) {
+            return of(mapping, null);
+        }
+
+        /**
+         * Reuses {@code previous}'s compiled template when its source is unchanged.
+         */
+        static Route of(RepoTopicMapping mapping, Route previous) {
+            String source = mapping.getMessageTemplate();
+            MessageTemplate template;
+            if (source == null || source.isBlank()) {
+                template = null;
+            } else if (previous != null && previous.template() != null
+                    && previous.template().source().equals(source)) {
+                template = previous.template();
+            } else {
+                template = compileTemplate(mapping.getRepoFullName(), source);
+            }
+            return new Route(mapping.getRepoFullName(), mapping.getTopicId(),
+                    mapping.getCoalesceWindowSeconds(), mapping.getCoalesceMaxBatch(),
+                    BranchFilter.compile(mapping.getBranchRules()), template);
+        }
+    }
+
+    // Templates are validated when saved; a bad stored one must not block loading the other routes.
+    private static MessageTemplate compileTemplate(String repoFullName, String source) {
+        try {
+            return MessageTemplate.compile(source);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid message template for {}: {}", repoFullName, e.getMessage());
+            return null;
+        }
+    }
+
+    private final RepoTopicMappingRepository repository;
+    private final ClusterProperties clusterProperties;
+    private final ScheduledExecutorService refreshTimer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("routing-refresh").daemon().factory());
+    private volatile Map<String, Route> routes = Map.of();
+
+    public RepoRoutingTable(RepoTopicMappingRepository repository, ClusterProperties clusterProperties) {
+        this.repository = repository;
+        this.clusterProperties = clusterProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefresh() {
+        long interval = clusterProperties.routingRefreshInterval().toMillis();
+        refreshTimer.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh repo routes: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onLeadershipChanged(LeaderLeaseService.LeadershipChanged event) {
+        if (event.leader()) {
+            // Catch up on changes made by the previous leader.
+            reload();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        refreshTimer.shutdownNow();
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        Map<String, Route> previous = routes;
+        routes = repository.findAll().stream()
+                .map(mapping -> Route.of(mapping, previous.get(mapping.getRepoFullName())))
+                .collect(Collectors.toUnmodifiableMap(Route::repoFullName, r -> r));
+        if (routes.size() != previous.size()) {
+            log.info("Loaded {} repo routes", routes.size());
+        }
+    }
+
+    public Optional<Route> find(String repoFullName) {
+        return Optional.ofNullable(routes.get(repoFullName));
+    }
+
+    public RepoTopicMapping save(RepoTopicMapping mapping) {
+        RepoTopicMapping saved = repository.save(mapping);
+        update(saved.getRepoFullName(), Route.of(saved));
+        return saved;
+    }
+
+    public List<RepoTopicMapping> saveAll(List<RepoTopicMapping> mappings) {
+        List<RepoTopicMapping> saved = repository.saveAll(mappings);
+        synchronized (this) {
+            Map<String, Route> next = new HashMap<>(routes);
+            for (RepoTopicMapping mapping : saved) {
+                next.put(mapping.getRepoFullName(), Route.of(mapping));
+            }
+            routes = Map.copyOf(next);
+        }
+        return saved;
+    }
+
+    public void delete(String repoFullName) {
+        repository.deleteByRepoFullName(repoFullName);
+        update(repoFullName, null);
+    }
+
+    private synchronized void update(String repoFullName, Route route) {
+        Map<String, Route> next = new HashMap<>(routes);
+        if (route == null) {
+            next.remove(repoFullName);
+        } else {
+            next.put(repoFullName, route);
+        }
+        routes = Map.copyOf(next);
+    }
+}
@@ -0,0 +1,40 @@
+package uz.sonic.githubbot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.GetMe;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import uz.sonic.githubbot.service.TelegramOutboundScheduler.Priority;
+
+/**
+ * Opens a pooled connection to the Bot API as soon as the app is ready, so the
+ * first notification after a deploy does not pay for DNS and TLS setup.
+ */
+@Component
+public class TelegramConnectionWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(TelegramConnectionWarmer.class);
+
+    private final TelegramOutboundScheduler scheduler;
+
+    public TelegramConnectionWarmer(TelegramOutboundScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread.ofVirtual().name("telegram-warmup").start(() -> {
+            long start = System.nanoTime();
+            try {
+                var me = scheduler.execute(new GetMe(), null, Priority.HIGH);
+                log.info("Telegram connection warmed up as @{} in {} ms",
+                        me.getUserName(), (System.nanoTime() - start) / 1_000_000);
+            } catch (TelegramApiException e) {
+                log.warn("Telegram connection warm-up failed: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -9,36 +9,32 @@ import org.telegram.telegrambots.meta.api.methods.forum.DeleteForumTopic;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.forum.ForumTopic;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.meta.generics.TelegramClient;
-import uz.sonic.githubbot.repository.RepoTopicMappingRepository;
+import uz.sonic.githubbot.service.TelegramOutboundScheduler.Priority;
 
 @Service
 public class TelegramNotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(TelegramNotificationService.class);
 
-    private final TelegramClient telegramClient;
+    private final TelegramOutboundScheduler scheduler;
     private final String chatId;
-    private final RepoTopicMappingRepository repoTopicMappingRepository;
 
     public TelegramNotificationService(
-            TelegramClient telegramClient,
-            @Value("${telegram.chat-id}") String chatId,
-            RepoTopicMappingRepository repoTopicMappingRepository) {
-        this.telegramClient = telegramClient;
+            TelegramOutboundScheduler scheduler,
+            @Value("${telegram.chat-id}") String chatId) {
+        this.scheduler = scheduler;
         this.chatId = chatId;
-        this.repoTopicMappingRepository = repoTopicMappingRepository;
     }
 
-    public void sendMessageToRepo(String repoFullName, String text) {
-        repoTopicMappingRepository.findByRepoFullName(repoFullName)
-                .ifPresentOrElse(
-                        mapping -> sendMessage(text, mapping.getTopicId()),
-                        () -> log.warn("No topic mapping found for repo: {}", repoFullName)
-                );
+    public void sendMessage(String text, Integer messageThreadId, Priority priority) {
+        try {
+            deliver(text, messageThreadId, priority);
+        } catch (TelegramApiException e) {
+            log.error("Failed to send Telegram notification to topic {}", messageThreadId, e);
+        }
     }
 
-    public void sendMessage(String text, Integer messageThreadId) {
+    public void deliver(String text, Integer messageThreadId, Priority priority) throws TelegramApiException {
         SendMessage message = SendMessage.builder()
                 .chatId(chatId)
                 .text(text)
@@ -46,20 +42,20 @@ public class TelegramNotificationService {
                 .parseMode("MarkdownV2")
                 .disableWebPagePreview(true)
                 .build();
-        try {
-            telegramClient.execute(message);
-            log.info("Telegram notification sent to topic {}", messageThreadId);
-        } catch (TelegramApiException e) {
-            log.error("Failed to send Telegram notification to topic {}", messageThreadId, e);
-        }
+        scheduler.execute(message, chatId, priority);
+        log.info("Telegram notification sent to topic {}", messageThreadId);
     }
 
     public ForumTopic createForumTopic(String name) throws TelegramApiException {
+        return createForumTopic(name, Priority.HIGH);
+    }
+
+    public ForumTopic createForumTopic(String name, Priority priority) throws TelegramApiException {
         CreateForumTopic createForumTopic = CreateForumTopic.builder()
                 .chatId(chatId)
                 .name(name)
                 .build();
-        return telegramClient.execute(createForumTopic);
+        return scheduler.execute(createForumTopic, chatId, priority);
     }
 
     public void deleteForumTopic(Integer messageThreadId) throws TelegramApiException {
@@ -67,6 +63,6 @@ public class TelegramNotificationService {
                 .chatId(chatId)
                 .messageThreadId(messageThreadId)
                 .build();
-        telegramClient.execute(deleteForumTopic);
+        scheduler.execute(deleteForumTopic, chatId, Priority.HIGH);
     }
 }
@@ -0,0 +1,247 @@
+package uz.sonic.githubbot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.api.methods.botapimethods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+import uz.sonic.githubbot.config.TelegramRateLimitProperties;
+import uz.sonic.githubbot.util.TokenBucket;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single gate for every Telegram Bot API call. Calls wait for a token from the
+ * global bucket and, when they target a chat, from that chat's bucket. Waiting
+ * calls are granted in priority order, and a 429 with {@code retry_after}
+ * pauses all grants before the call is retried.
+ */
+@Service
+public class TelegramOutboundScheduler {
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        // Bulk work such as onboarding topics, granted only when no notification waits.
+        LOW
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TelegramOutboundScheduler.class);
+
+    // A method name and the meter's other tag value.
+    private record MeterKey(String method, String tag) {}
+
+    private final TelegramClient telegramClient;
+    private final TelegramRateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Priority, Deque<Ticket>> lanes = new EnumMap<>(Priority.class);
+    private final Map<String, TokenBucket> chatBuckets = new HashMap<>();
+    // Meters are cached, so a send does not build and register them again.
+    private final Map<MeterKey, Timer> waitTimers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rateLimitedCounters = new ConcurrentHashMap<>();
+    private final TokenBucket globalBucket;
+    private final Thread dispatcher;
+    private long pausedUntil;
+    private volatile boolean running = true;
+
+    public TelegramOutboundScheduler(TelegramClient telegramClient, TelegramRateLimitProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.telegramClient = telegramClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.globalBucket = new TokenBucket(properties.globalBurst(), properties.globalPerSecond(), System.nanoTime());
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+        }
+        this.dispatcher = Thread.ofPlatform().name("telegram-outbound").daemon().start(this::dispatch);
+    }
+
+    /**
+     * Executes the method once the rate limits allow it, retrying on 429.
+     *
+     * @param chatId chat the method targets, or {@code null} if it is not chat-scoped
+     */
+    public <T extends Serializable> T execute(BotApiMethod<T> method, String chatId, Priority priority)
+            throws TelegramApiException {
+        String methodName = method.getClass().getSimpleName();
+        int attempt = 0;
+        while (true) {
+            long queued = System.nanoTime();
+            awaitPermit(chatId, priority);
+            long start = System.nanoTime();
+            waitTimers.computeIfAbsent(new MeterKey(methodName, priority.name()), key -> Timer.builder("telegram.api.wait")
+                            .description("Time spent waiting for a rate-limit permit")
+                            .tags("method", key.method(), "priority", key.tag())
+                            .register(meterRegistry))
+                    .record(start - queued, TimeUnit.NANOSECONDS);
+            try {
+                T result = telegramClient.execute(method);
+                record(methodName, "success", start);
+                return result;
+            } catch (TelegramApiRequestException e) {
+                Integer retryAfter = e.getParameters() != null ? e.getParameters().getRetryAfter() : null;
+                if (retryAfter != null) {
+                    record(methodName, "rate_limited", start);
+                    rateLimitedCounters.computeIfAbsent(methodName,
+                            name -> meterRegistry.counter("telegram.api.rate.limited", "method", name)).increment();
+                } else {
+                    record(methodName, "error", start);
+                    countError(methodName, e.getErrorCode() == null ? "unknown" : e.getErrorCode().toString());
+                }
+                if (retryAfter == null || attempt++ >= properties.maxRetries()) {
+                    throw e;
+                }
+                log.warn("Telegram rate limit hit on {}, retrying in {}s", method.getMethod(), retryAfter);
+                pause(TimeUnit.SECONDS.toNanos(retryAfter));
+            } catch (TelegramApiException e) {
+                record(methodName, "error", start);
+                countError(methodName, "transport");
+                throw e;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    private void awaitPermit(String chatId, Priority priority) throws TelegramApiException {
+        Ticket ticket = new Ticket(chatId);
+        lock.lock();
+        try {
+            lanes.get(priority).addLast(ticket);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            ticket.granted.await();
+        } catch (InterruptedException e) {
+            lock.lock();
+            try {
+                lanes.get(priority).remove(ticket);
+            } finally {
+                lock.unlock();
+            }
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException("Interrupted while waiting for Telegram rate limit", e);
+        }
+    }
+
+    private void record(String methodName, String outcome, long start) {
+        requestTimers.computeIfAbsent(new MeterKey(methodName, outcome), key -> Timer.builder("telegram.api.requests")
+                        .description("Telegram Bot API call latency")
+                        .tags("method", key.method(), "outcome", key.tag())
+                        .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void countError(String methodName, String code) {
+        errorCounters.computeIfAbsent(new MeterKey(methodName, code),
+                key -> meterRegistry.counter("telegram.api.errors", "method", key.method(), "code", key.tag()))
+                .increment();
+    }
+
+    private void pause(long nanos) {
+        lock.lock();
+        try {
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + nanos);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        lock.lock();
+        try {
+            while (running) {
+                long wait = grantReady(System.nanoTime());
+                if (wait > 0) {
+                    changed.awaitNanos(wait);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grants every waiting ticket the buckets allow, highest priority first.
+     *
+     * @return nanoseconds until the next grant could become possible
+     */
+    private long grantReady(long now) {
+        if (now < pausedUntil) {
+            return pausedUntil - now;
+        }
+        long minWait = Long.MAX_VALUE;
+        for (Deque<Ticket> lane : lanes.values()) {
+            Iterator<Ticket> it = lane.iterator();
+            while (it.hasNext()) {
+                long globalWait = globalBucket.nanosUntilAvailable(now);
+                if (globalWait > 0) {
+                    return globalWait;
+                }
+                Ticket ticket = it.next();
+                TokenBucket chatBucket = ticket.chatId == null ? null : chatBucket(ticket.chatId, now);
+                long chatWait = chatBucket == null ? 0 : chatBucket.nanosUntilAvailable(now);
+                if (chatWait > 0) {
+                    minWait = Math.min(minWait, chatWait);
+                    continue;
+                }
+                globalBucket.consume(now);
+                if (chatBucket != null) {
+                    chatBucket.consume(now);
+                }
+                it.remove();
+                ticket.granted.countDown();
+            }
+        }
+        return minWait;
+    }
+
+    private TokenBucket chatBucket(String chatId, long now) {
+        return chatBuckets.computeIfAbsent(chatId, id ->
+                new TokenBucket(properties.perChatBurst(), properties.perChatPerMinute() / 60d, now));
+    }
+
+    private static final class Ticket {
+        private final String chatId;
+        private final CountDownLatch granted = new CountDownLatch(1);
+
+        Ticket(String chatId) {
+            this.chatId = chatId;
+        }
+    }
+}
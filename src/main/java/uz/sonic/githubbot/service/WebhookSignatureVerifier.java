@@ -0,0 +1,131 @@
+package uz.sonic.githubbot.service;
+
+import org.springframework.stereotype.Service;
+import uz.sonic.githubbot.config.GitHubWebhookProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Verifies {@code X-Hub-Signature-256} headers. The key is built once and
+ * initialised {@link Mac} instances are pooled rather than kept in thread
+ * locals, so request handling on virtual threads still reuses them.
+ */
+@Service
+public class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "sha256=";
+    private static final int DIGEST_LENGTH = 32;
+
+    private final SecretKeySpec key;
+    private final Queue<Session> pool = new ConcurrentLinkedQueue<>();
+
+    public WebhookSignatureVerifier(GitHubWebhookProperties properties) {
+        this.key = new SecretKeySpec(properties.secret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public boolean isValid(byte[] payload, String signature) {
+        return isValid(payload, 0, payload.length, signature);
+    }
+
+    public boolean isValid(byte[] payload, int offset, int length, String signature) {
+        if (!hasValidFormat(signature)) {
+            return false;
+        }
+        Session session = begin();
+        session.update(payload, offset, length);
+        return session.verify(signature);
+    }
+
+    /**
+     * Starts an incremental verification. The session must be finished with
+     * {@link Session#verify} or {@link Session#discard}, which return it to the pool.
+     */
+    public Session begin() {
+        Session session = pool.poll();
+        return session != null ? session : new Session(newMac());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static boolean hasValidFormat(String signature) {
+        return signature != null
+                && signature.length() == PREFIX.length() + DIGEST_LENGTH * 2
+                && signature.startsWith(PREFIX);
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    public final class Session {
+        private final Mac mac;
+        private final byte[] digest = new byte[DIGEST_LENGTH];
+
+        private Session(Mac mac) {
+            this.mac = mac;
+        }
+
+        public void update(byte[] data, int offset, int length) {
+            mac.update(data, offset, length);
+        }
+
+        /**
+         * Compares the digest with the hex signature in constant time and
+         * releases the session.
+         */
+        public boolean verify(String signature) {
+            try {
+                mac.doFinal(digest, 0);
+                return hasValidFormat(signature) && matches(signature);
+            } catch (GeneralSecurityException e) {
+                mac.reset();
+                return false;
+            } finally {
+                pool.offer(this);
+            }
+        }
+
+        /**
+         * Releases the session without verifying.
+         */
+        public void discard() {
+            mac.reset();
+            pool.offer(this);
+        }
+
+        private boolean matches(String signature) {
+            int diff = 0;
+            int pos = PREFIX.length();
+            for (int i = 0; i < DIGEST_LENGTH; i++) {
+                int hi = hexValue(signature.charAt(pos++));
+                int lo = hexValue(signature.charAt(pos++));
+                diff |= (hi | lo) >>> 31;
+                diff |= (digest[i] & 0xff) ^ (((hi << 4) | lo) & 0xff);
+            }
+            return diff == 0;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package uz.sonic.githubbot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Branch include/exclude rules compiled once from a space-separated list such
+ * as {@code "main release/* !release/old-*"}. Patterns prefixed with {@code !}
+ * exclude, {@code *} and {@code ?} are wildcards and {@code $default} stands
+ * for the repository's default branch. Without include patterns only the
+ * default branch matches. Matching works on the ref in place and does not
+ * allocate.
+ */
+public final class BranchFilter {
+
+    public static final String DEFAULT_BRANCH_TOKEN = "$default";
+
+    private static final String HEADS = "refs/heads/";
+    private static final BranchFilter DEFAULT_ONLY = new BranchFilter("", new Rules(), new Rules());
+
+    private final String source;
+    private final Rules include;
+    private final Rules exclude;
+
+    private BranchFilter(String source, Rules include, Rules exclude) {
+        this.source = source;
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    public static BranchFilter compile(String rules) {
+        if (rules == null || rules.isBlank()) {
+            return DEFAULT_ONLY;
+        }
+        Rules include = new Rules();
+        Rules exclude = new Rules();
+        for (String token : rules.trim().split("\\s+")) {
+            if (token.startsWith("!")) {
+                if (token.length() > 1) {
+                    exclude.add(token.substring(1));
+                }
+            } else {
+                include.add(token);
+            }
+        }
+        return new BranchFilter(String.join(" ", rules.trim().split("\\s+")), include, exclude);
+    }
+
+    /**
+     * @param ref full git ref, e.g. {@code refs/heads/main}
+     */
+    public boolean matches(String ref, String defaultBranch) {
+        if (ref == null || !ref.startsWith(HEADS)) {
+            return false;
+        }
+        int from = HEADS.length();
+        boolean included = include.isEmpty()
+                ? isDefault(ref, from, defaultBranch)
+                : include.matches(ref, from, defaultBranch);
+        return included && !exclude.matches(ref, from, defaultBranch);
+    }
+
+    /**
+     * Normalised rule text; empty for the default-branch-only filter.
+     */
+    public String source() {
+        return source;
+    }
+
+    private static boolean isDefault(String ref, int from, String defaultBranch) {
+        return defaultBranch != null
+                && ref.length() - from == defaultBranch.length()
+                && ref.startsWith(defaultBranch, from);
+    }
+
+    private static final class Rules {
+        private final List<String> exact = new ArrayList<>();
+        private final List<String> prefixes = new ArrayList<>();
+        private final List<String> globs = new ArrayList<>();
+        private boolean matchesDefault;
+
+        void add(String pattern) {
+            if (pattern.equals(DEFAULT_BRANCH_TOKEN)) {
+                matchesDefault = true;
+            } else if (pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0) {
+                exact.add(pattern);
+            } else if (pattern.indexOf('*') == pattern.length() - 1 && pattern.indexOf('?') < 0) {
+                prefixes.add(pattern.substring(0, pattern.length() - 1));
+            } else {
+                globs.add(pattern);
+            }
+        }
+
+        boolean isEmpty() {
+            return !matchesDefault && exact.isEmpty() && prefixes.isEmpty() && globs.isEmpty();
+        }
+
+        boolean matches(String ref, int from, String defaultBranch) {
+            if (matchesDefault && isDefault(ref, from, defaultBranch)) {
+                return true;
+            }
+            for (String branch : exact) {
+                if (ref.length() - from == branch.length() && ref.startsWith(branch, from)) {
+                    return true;
+                }
+            }
+            for (String prefix : prefixes) {
+                if (ref.startsWith(prefix, from)) {
+                    return true;
+                }
+            }
+            for (String glob : globs) {
+                if (globMatches(glob, ref, from)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static boolean globMatches(String pattern, String text, int from) {
+        int p = 0;
+        int t = from;
+        int star = -1;
+        int mark = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = t;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+}
@@ -0,0 +1,44 @@
+package uz.sonic.githubbot.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size byte arrays reused across requests. At most {@code maxPooled}
+ * arrays are ever created; arrays of any other length are ignored on release
+ * and left to the garbage collector.
+ */
+public final class ByteArrayPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final Queue<byte[]> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    public ByteArrayPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * @return a pooled array, or {@code null} if all of them are in use
+     */
+    public byte[] acquire() {
+        byte[] buffer = pool.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (created.incrementAndGet() <= maxPooled) {
+            return new byte[bufferSize];
+        }
+        created.decrementAndGet();
+        return null;
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            pool.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package uz.sonic.githubbot.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-conversation state that is forgotten after a time-to-live, so an
+ * abandoned prompt does not capture a later unrelated message. Expired entries
+ * are dropped on access and swept on every write.
+ */
+public final class ConversationStateStore<K, S> {
+
+    private record Entry<S>(S state, long expiresAt) {}
+
+    private final long ttlNanos;
+    private final Map<K, Entry<S>> states = new ConcurrentHashMap<>();
+
+    public ConversationStateStore(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public void put(K key, S state) {
+        long now = System.nanoTime();
+        states.values().removeIf(e -> e.expiresAt - now <= 0);
+        states.put(key, new Entry<>(state, now + ttlNanos));
+    }
+
+    /**
+     * Removes and returns the conversation's live state, or {@code null} if there is none.
+     */
+    public S take(K key) {
+        Entry<S> entry = states.remove(key);
+        return entry == null || entry.expiresAt - System.nanoTime() <= 0 ? null : entry.state;
+    }
+
+    public void clear(K key) {
+        states.remove(key);
+    }
+}
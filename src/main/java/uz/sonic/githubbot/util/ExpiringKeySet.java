@@ -0,0 +1,69 @@
+package uz.sonic.githubbot.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent set whose keys expire after a fixed time-to-live. Entries are
+ * evicted in insertion order, on expiry or when the set is over capacity,
+ * so memory stays bounded regardless of traffic. Removed keys leave a stale
+ * entry in the eviction queue that is skipped when it reaches the head; the
+ * capacity counts queued entries, stale ones included, so repeated
+ * add-and-remove cycles cannot grow the queue past {@code maxEntries}.
+ */
+public final class ExpiringKeySet {
+
+    private record Entry(String key, long expiresAt) {}
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Long> keys = new ConcurrentHashMap<>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public ExpiringKeySet(long ttlNanos, int maxEntries) {
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Adds the key unless a live entry for it exists.
+     *
+     * @return {@code true} if the key was added
+     */
+    public boolean add(String key) {
+        long now = System.nanoTime();
+        evict(now);
+        long expiresAt = now + ttlNanos;
+        Long previous = keys.putIfAbsent(key, expiresAt);
+        if (previous != null && (previous - now > 0 || !keys.replace(key, previous, expiresAt))) {
+            return false;
+        }
+        queued.incrementAndGet();
+        order.add(new Entry(key, expiresAt));
+        return true;
+    }
+
+    public void remove(String key) {
+        keys.remove(key);
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null
+                && (head.expiresAt - now <= 0 || queued.get() >= maxEntries)) {
+            if (order.remove(head)) {
+                queued.decrementAndGet();
+                // A no-op for stale entries: the key was removed or re-added with a later expiry.
+                keys.remove(head.key, head.expiresAt);
+            }
+        }
+    }
+
+    int queuedEntries() {
+        return queued.get();
+    }
+}
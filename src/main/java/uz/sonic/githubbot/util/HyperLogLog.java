@@ -0,0 +1,120 @@
+package uz.sonic.githubbot.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * HyperLogLog distinct-count sketch with 2<sup>precision</sup> registers.
+ * {@link #add} is lock-free, so many threads may record into one sketch.
+ * Sketches of equal precision merge by taking the maximum of each register,
+ * which is how buckets are combined into a window.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 10;
+
+    private final int precision;
+    private final AtomicIntegerArray registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new AtomicIntegerArray(1 << precision);
+    }
+
+    /**
+     * Restores a sketch from {@link #toBytes()}.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        int precision = Integer.numberOfTrailingZeros(bytes.length);
+        if (bytes.length != 1 << precision) {
+            throw new IllegalArgumentException("Sketch length must be a power of two: " + bytes.length);
+        }
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = 0; i < bytes.length; i++) {
+            sketch.registers.set(i, bytes[i]);
+        }
+        return sketch;
+    }
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits, capped for an all-zero tail.
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        int current = registers.get(index);
+        while (rank > current && !registers.weakCompareAndSetVolatile(index, current, rank)) {
+            current = registers.get(index);
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + other.precision
+                    + " into " + precision);
+        }
+        for (int i = 0; i < registers.length(); i++) {
+            registers.accumulateAndGet(i, other.registers.get(i), Math::max);
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length();
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i++) {
+            int r = registers.get(i);
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double alpha = switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+        double estimate = alpha * m * m / sum;
+        // Linear counting is far more accurate while many registers are still empty.
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) registers.get(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes with a murmur3 finaliser, so that
+     * similar strings still spread over all registers.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,145 @@
+package uz.sonic.githubbot.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-size, memory-mapped append-only file of length-prefixed records:
+ * {@code [int length][int crc32c][payload]}. A zero length marks the end.
+ * Only one thread may append; readers see records up to {@link #end()}.
+ */
+public final class JournalSegment {
+
+    public static final int HEADER_SIZE = 8;
+
+    /**
+     * Receives each record's position and payload; the payload is a read-only view.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(int position, ByteBuffer payload);
+    }
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private volatile int end;
+
+    private JournalSegment(Path path, MappedByteBuffer buffer, int end) {
+        this.path = path;
+        this.buffer = buffer;
+        this.end = end;
+    }
+
+    public static JournalSegment create(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new JournalSegment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), 0);
+        }
+    }
+
+    /**
+     * Maps an existing segment and finds its end. A torn or corrupt tail left
+     * by a crash is cleared so later appends start from the last good record.
+     */
+    public static JournalSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int end = 0;
+            while (recordLength(buffer, end) > 0) {
+                end += HEADER_SIZE + buffer.getInt(end);
+            }
+            if (end + Integer.BYTES <= buffer.capacity() && buffer.getInt(end) != 0) {
+                for (int i = end; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+            return new JournalSegment(path, buffer, end);
+        }
+    }
+
+    /**
+     * Maps a segment another process may still be appending to. Records up to
+     * the first incomplete one are visible; nothing is written to the file.
+     */
+    public static JournalSegment openReadOnly(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int end = 0;
+            while (recordLength(buffer, end) > 0) {
+                end += HEADER_SIZE + buffer.getInt(end);
+            }
+            return new JournalSegment(path, buffer, end);
+        }
+    }
+
+    /**
+     * @return the record's position, or {@code -1} if it does not fit
+     */
+    public int append(byte[] payload) {
+        int position = end;
+        if (position + HEADER_SIZE + payload.length > buffer.capacity()) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        buffer.put(position + HEADER_SIZE, payload);
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        // Length last: a record is only visible once its payload is in place.
+        buffer.putInt(position, payload.length);
+        end = position + HEADER_SIZE + payload.length;
+        return position;
+    }
+
+    public ByteBuffer read(int position) {
+        int length = buffer.getInt(position);
+        return buffer.slice(position + HEADER_SIZE, length).asReadOnlyBuffer();
+    }
+
+    public void forEach(RecordVisitor visitor) {
+        int limit = end;
+        int position = 0;
+        while (position < limit) {
+            int length = buffer.getInt(position);
+            visitor.visit(position, buffer.slice(position + HEADER_SIZE, length).asReadOnlyBuffer());
+            position += HEADER_SIZE + length;
+        }
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return payload length of a valid record at {@code position}, or {@code 0}
+     */
+    private static int recordLength(MappedByteBuffer buffer, int position) {
+        if (position + HEADER_SIZE > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + HEADER_SIZE, length));
+        return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES) ? length : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package uz.sonic.githubbot.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on a shared executor so that tasks submitted under the same key
+ * run one at a time in submission order, while different keys run in
+ * parallel. Idle keys hold no state.
+ */
+public final class KeyedSerialExecutor<K> {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyedSerialExecutor.class);
+
+    private final Executor executor;
+    private final Map<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void execute(K key, Runnable task) {
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.runAsync(() -> runSafely(k, task), executor)
+                : tail.thenRunAsync(() -> runSafely(k, task), executor));
+        next.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Task for {} was not run: {}", key, error.toString());
+            }
+            tails.remove(key, next);
+        });
+    }
+
+    private static void runSafely(Object key, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Task for {} failed", key, e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package uz.sonic.githubbot.util;
+
+/**
+ * Fluent MarkdownV2 message builder that escapes straight into one buffer.
+ * {@link #text} escapes its argument, {@link #raw} appends it as is.
+ */
+public final class MarkdownV2Builder {
+
+    private final StringBuilder sb;
+    private int italicEnd = -1;
+
+    public MarkdownV2Builder() {
+        this(256);
+    }
+
+    public MarkdownV2Builder(int capacity) {
+        this.sb = new StringBuilder(capacity);
+    }
+
+    public MarkdownV2Builder text(CharSequence text) {
+        MarkdownV2Utils.appendEscaped(sb, text);
+        return this;
+    }
+
+    public MarkdownV2Builder text(CharSequence text, int start, int end) {
+        MarkdownV2Utils.appendEscaped(sb, text, start, end);
+        return this;
+    }
+
+    public MarkdownV2Builder text(long value) {
+        if (value < 0) {
+            sb.append('\\');
+        }
+        sb.append(value);
+        return this;
+    }
+
+    public MarkdownV2Builder raw(CharSequence markdown) {
+        sb.append(markdown);
+        return this;
+    }
+
+    public MarkdownV2Builder raw(char c) {
+        sb.append(c);
+        return this;
+    }
+
+    public MarkdownV2Builder raw(long value) {
+        sb.append(value);
+        return this;
+    }
+
+    public MarkdownV2Builder bold(CharSequence text) {
+        MarkdownV2Utils.appendBold(sb, text);
+        return this;
+    }
+
+    public MarkdownV2Builder italic(CharSequence text) {
+        return italic(text, 0, text.length());
+    }
+
+    public MarkdownV2Builder italic(CharSequence text, int start, int end) {
+        // "_a__b_" reads as underline; Telegram ignores a \r between the two entities.
+        if (sb.length() == italicEnd) {
+            sb.append('\r');
+        }
+        sb.append('_');
+        MarkdownV2Utils.appendEscaped(sb, text, start, end);
+        sb.append('_');
+        italicEnd = sb.length();
+        return this;
+    }
+
+    public MarkdownV2Builder code(CharSequence text) {
+        MarkdownV2Utils.appendCode(sb, text);
+        return this;
+    }
+
+    public MarkdownV2Builder code(CharSequence text, int start, int end) {
+        MarkdownV2Utils.appendCode(sb, text, start, end);
+        return this;
+    }
+
+    public MarkdownV2Builder pre(CharSequence text) {
+        MarkdownV2Utils.appendPre(sb, text);
+        return this;
+    }
+
+    public MarkdownV2Builder link(CharSequence text, CharSequence url) {
+        MarkdownV2Utils.appendLink(sb, text, url);
+        return this;
+    }
+
+    /**
+     * Link whose text is already MarkdownV2; only the URL is escaped.
+     */
+    public MarkdownV2Builder rawLink(CharSequence markdown, CharSequence url) {
+        sb.append('[').append(markdown);
+        MarkdownV2Utils.appendLinkUrl(sb, url);
+        return this;
+    }
+
+    public MarkdownV2Builder newline() {
+        sb.append('\n');
+        return this;
+    }
+
+    public int length() {
+        return sb.length();
+    }
+
+    /**
+     * Drops everything after {@code length}, which must be a length taken between entities.
+     */
+    public MarkdownV2Builder truncate(int length) {
+        sb.setLength(length);
+        if (italicEnd > length) {
+            italicEnd = -1;
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
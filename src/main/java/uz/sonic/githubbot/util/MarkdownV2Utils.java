@@ -1,28 +1,144 @@
 package uz.sonic.githubbot.util;
 
+import java.io.IOException;
+
 public final class MarkdownV2Utils {
 
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static {
+        for (char c : "_*[]()~`>#+-=|{}.!\\".toCharArray()) {
+            SPECIAL[c] = true;
+        }
+    }
+
     private MarkdownV2Utils() {
     }
 
     public static String escape(String text) {
-        return text.replaceAll("([_*\\[\\]()~`>#+\\-=|{}.!\\\\])", "\\\\$1");
+        int first = firstSpecial(text);
+        if (first < 0) {
+            return text;
+        }
+        var sb = new StringBuilder(text.length() + 16);
+        sb.append(text, 0, first);
+        appendEscaped(sb, text, first, text.length());
+        return sb.toString();
     }
 
     public static String bold(String text) {
-        return "*" + escape(text) + "*";
+        var sb = new StringBuilder(text.length() + 8);
+        return appendBold(sb, text).toString();
     }
 
     public static String italic(String text) {
-        return "_" + escape(text) + "_";
+        var sb = new StringBuilder(text.length() + 8);
+        return appendItalic(sb, text).toString();
     }
 
     public static String code(String text) {
-        return "`" + text.replace("\\", "\\\\").replace("`", "\\`") + "`";
+        var sb = new StringBuilder(text.length() + 4);
+        return appendCode(sb, text).toString();
     }
 
     public static String link(String text, String url) {
-        String escapedUrl = url.replace("\\", "\\\\").replace(")", "\\)");
-        return "[" + escape(text) + "](" + escapedUrl + ")";
+        var sb = new StringBuilder(text.length() + url.length() + 8);
+        return appendLink(sb, text, url).toString();
+    }
+
+    public static StringBuilder appendEscaped(StringBuilder sb, CharSequence text) {
+        return appendEscaped(sb, text, 0, text.length());
+    }
+
+    public static StringBuilder appendBold(StringBuilder sb, CharSequence text) {
+        sb.append('*');
+        return appendEscaped(sb, text).append('*');
+    }
+
+    public static StringBuilder appendItalic(StringBuilder sb, CharSequence text) {
+        sb.append('_');
+        return appendEscaped(sb, text).append('_');
+    }
+
+    public static StringBuilder appendCode(StringBuilder sb, CharSequence text) {
+        return appendCode(sb, text, 0, text.length());
+    }
+
+    public static StringBuilder appendCode(StringBuilder sb, CharSequence text, int from, int to) {
+        sb.append('`');
+        return appendCodeEscaped(sb, text, from, to).append('`');
+    }
+
+    public static StringBuilder appendPre(StringBuilder sb, CharSequence text) {
+        sb.append("```\n");
+        return appendCodeEscaped(sb, text, 0, text.length()).append("\n```");
+    }
+
+    private static StringBuilder appendCodeEscaped(StringBuilder sb, CharSequence text, int from, int to) {
+        int start = from;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == '`') {
+                sb.append(text, start, i).append('\\');
+                start = i;
+            }
+        }
+        return sb.append(text, start, to);
+    }
+
+    public static StringBuilder appendLink(StringBuilder sb, CharSequence text, CharSequence url) {
+        sb.append('[');
+        appendEscaped(sb, text);
+        return appendLinkUrl(sb, url);
+    }
+
+    /**
+     * Appends {@code ](url)}, closing a link whose text is already in {@code sb}.
+     */
+    public static StringBuilder appendLinkUrl(StringBuilder sb, CharSequence url) {
+        sb.append("](");
+        int start = 0;
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '\\' || c == ')') {
+                sb.append(url, start, i).append('\\');
+                start = i;
+            }
+        }
+        return sb.append(url, start, url.length()).append(')');
+    }
+
+    public static void appendEscaped(Appendable out, CharSequence text) throws IOException {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128 && SPECIAL[c]) {
+                out.append(text, start, i).append('\\');
+                start = i;
+            }
+        }
+        out.append(text, start, text.length());
+    }
+
+    public static StringBuilder appendEscaped(StringBuilder sb, CharSequence text, int from, int to) {
+        int start = from;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 128 && SPECIAL[c]) {
+                sb.append(text, start, i).append('\\');
+                start = i;
+            }
+        }
+        return sb.append(text, start, to);
+    }
+
+    private static int firstSpecial(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128 && SPECIAL[c]) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
@@ -0,0 +1,319 @@
+package uz.sonic.githubbot.util;
+
+import uz.sonic.githubbot.model.Commit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Notification layout compiled once into literal and field segments. Literal
+ * text is escaped for MarkdownV2 when the template is compiled and each field
+ * has its style fixed, so rendering only walks the segments.
+ * <pre>
+ * {repo} {branch} {pusher} {count} {compare}   push fields
+ * {link} {link:Label}                          link to the compare view
+ * {commits}                                    default commit list
+ * {#commits} ... {/commits}                    repeated per commit, {#commits:5} shows at most 5
+ * {sha} {message} {body} {author} {url}        commit fields inside a section; message is the first line
+ * {field:bold} {field:italic} {field:code}     styled field
+ * {{ }}                                        literal braces
+ * </pre>
+ * Commits beyond the limit are summarised on one line after the section. A
+ * rendered message never exceeds Telegram's {@value #MAX_MESSAGE_LENGTH}
+ * characters: commits that do not fit join the summary, and the rest of the
+ * template is cut at the first segment that does not fit.
+ */
+public final class MessageTemplate {
+
+    public static final int MAX_SOURCE_LENGTH = 2048;
+    public static final int DEFAULT_MAX_COMMITS = 10;
+    // Counted on the markdown, which is never shorter than the text Telegram measures.
+    public static final int MAX_MESSAGE_LENGTH = 4096;
+
+    // Room left after the shown commits for the "... va yana N ta commit" line and a short footer like {link}.
+    private static final int SUMMARY_RESERVE = 256;
+    private static final char CUT_MARK = '\u2026';
+
+    /**
+     * @param commitCount total commits, {@code commits} may hold only the first few
+     */
+    public record Values(String repo, String branch, String pusher, int commitCount,
+                         List<Commit> commits, String compareUrl) {}
+
+    private enum Field {
+        REPO, BRANCH, PUSHER, COUNT, COMPARE, SHA(true), MESSAGE(true), BODY(true), AUTHOR(true), URL(true);
+
+        private final boolean perCommit;
+
+        Field() {
+            this(false);
+        }
+
+        Field(boolean perCommit) {
+            this.perCommit = perCommit;
+        }
+    }
+
+    private enum Style {
+        TEXT, BOLD, ITALIC, CODE
+    }
+
+    private sealed interface Segment {}
+
+    private record Literal(String markdown) implements Segment {}
+
+    private record FieldRef(Field field, Style style) implements Segment {}
+
+    private record Link(String markdownLabel) implements Segment {}
+
+    private record CommitList(int max, Segment[] body) implements Segment {}
+
+    private static final Segment[] DEFAULT_COMMIT_LINE = {
+            new Literal("• "), new FieldRef(Field.SHA, Style.CODE), new Literal(" \\- "),
+            new FieldRef(Field.MESSAGE, Style.TEXT), new Literal("\n")
+    };
+
+    private final String source;
+    private final Segment[] segments;
+    private final int capacity;
+
+    private MessageTemplate(String source, Segment[] segments) {
+        this.source = source;
+        this.segments = segments;
+        this.capacity = Math.max(256, source.length() * 2);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the template is too long, names an
+     *                                  unknown field or has unbalanced sections
+     */
+    public static MessageTemplate compile(String source) {
+        if (source.length() > MAX_SOURCE_LENGTH) {
+            throw new IllegalArgumentException("Template is longer than " + MAX_SOURCE_LENGTH + " characters");
+        }
+        List<Segment> top = new ArrayList<>();
+        List<Segment> section = null;
+        int sectionMax = 0;
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if ((c == '{' || c == '}') && i + 1 < source.length() && source.charAt(i + 1) == c) {
+                literal.append(c);
+                i += 2;
+                continue;
+            }
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            int close = source.indexOf('}', i + 1);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed { at position " + i);
+            }
+            String tag = source.substring(i + 1, close).trim();
+            i = close + 1;
+
+            List<Segment> target = section != null ? section : top;
+            flushLiteral(literal, target);
+            if (tag.startsWith("#")) {
+                if (section != null) {
+                    throw new IllegalArgumentException("Sections cannot be nested");
+                }
+                sectionMax = sectionMax(tag.substring(1));
+                section = new ArrayList<>();
+            } else if (tag.startsWith("/")) {
+                if (section == null || !tag.substring(1).trim().equals("commits")) {
+                    throw new IllegalArgumentException("Unexpected {" + tag + "}");
+                }
+                top.add(new CommitList(sectionMax, section.toArray(Segment[]::new)));
+                section = null;
+            } else if (tag.equals("commits")) {
+                if (section != null) {
+                    throw new IllegalArgumentException("{commits} is not valid inside {#commits}");
+                }
+                target.add(new CommitList(DEFAULT_MAX_COMMITS, DEFAULT_COMMIT_LINE));
+            } else {
+                target.add(field(tag, section != null));
+            }
+        }
+        if (section != null) {
+            throw new IllegalArgumentException("Missing {/commits}");
+        }
+        flushLiteral(literal, top);
+        return new MessageTemplate(source, top.toArray(Segment[]::new));
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public String render(Values values) {
+        var md = new MarkdownV2Builder(capacity);
+        if (!render(md, segments, values, null, MAX_MESSAGE_LENGTH - 1)) {
+            md.raw(CUT_MARK);
+        }
+        return md.toString();
+    }
+
+    /**
+     * @return {@code false} if a segment would have taken the message past
+     *         {@code limit}; it is dropped along with the segments after it
+     */
+    private static boolean render(MarkdownV2Builder md, Segment[] segments, Values values, Commit commit,
+                                  int limit) {
+        for (Segment segment : segments) {
+            int mark = md.length();
+            switch (segment) {
+                case Literal literal -> md.raw(literal.markdown());
+                case FieldRef ref -> appendField(md, ref, values, commit);
+                case Link link -> md.rawLink(link.markdownLabel(), orEmpty(values.compareUrl()));
+                case CommitList list -> renderCommits(md, list, values, limit);
+            }
+            if (md.length() > limit) {
+                md.truncate(mark);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void renderCommits(MarkdownV2Builder md, CommitList list, Values values, int limit) {
+        int max = Math.min(values.commits().size(), list.max());
+        int shown = 0;
+        while (shown < max) {
+            int mark = md.length();
+            if (!render(md, list.body(), values, values.commits().get(shown), limit - SUMMARY_RESERVE)) {
+                md.truncate(mark);
+                break;
+            }
+            shown++;
+        }
+        int remaining = values.commitCount() - shown;
+        if (remaining > 0) {
+            md.text("... va yana ").text(remaining).text(" ta commit").newline();
+        }
+    }
+
+    private static void appendField(MarkdownV2Builder md, FieldRef ref, Values values, Commit commit) {
+        switch (ref.field()) {
+            case REPO -> styled(md, ref.style(), orEmpty(values.repo()), 0, -1);
+            case BRANCH -> styled(md, ref.style(), orEmpty(values.branch()), 0, -1);
+            case PUSHER -> styled(md, ref.style(), orEmpty(values.pusher()), 0, -1);
+            case COUNT -> styled(md, ref.style(), Integer.toString(values.commitCount()), 0, -1);
+            case COMPARE -> styled(md, ref.style(), orEmpty(values.compareUrl()), 0, -1);
+            case SHA -> {
+                String id = orEmpty(commit.id());
+                styled(md, ref.style(), id, 0, Math.min(7, id.length()));
+            }
+            case MESSAGE -> {
+                String message = orEmpty(commit.message());
+                styled(md, ref.style(), message, 0, firstLineEnd(message));
+            }
+            case BODY -> {
+                String message = orEmpty(commit.message());
+                int start = firstLineEnd(message);
+                int end = message.length();
+                while (start < end && Character.isWhitespace(message.charAt(start))) {
+                    start++;
+                }
+                while (end > start && Character.isWhitespace(message.charAt(end - 1))) {
+                    end--;
+                }
+                styled(md, ref.style(), message, start, end);
+            }
+            case AUTHOR -> styled(md, ref.style(),
+                    commit.author() == null ? "" : orEmpty(commit.author().name()), 0, -1);
+            case URL -> styled(md, ref.style(), orEmpty(commit.url()), 0, -1);
+        }
+    }
+
+    /**
+     * @param end exclusive end, or {@code -1} for the whole value
+     */
+    private static void styled(MarkdownV2Builder md, Style style, String value, int start, int end) {
+        if (end < 0) {
+            end = value.length();
+        }
+        // Empty entities are rejected by Telegram.
+        if (start == end) {
+            return;
+        }
+        switch (style) {
+            case TEXT -> md.text(value, start, end);
+            case BOLD -> md.raw('*').text(value, start, end).raw('*');
+            case ITALIC -> md.italic(value, start, end);
+            case CODE -> md.code(value, start, end);
+        }
+    }
+
+    private static Segment field(String tag, boolean inSection) {
+        int colon = tag.indexOf(':');
+        String name = colon < 0 ? tag : tag.substring(0, colon).trim();
+        String modifier = colon < 0 ? null : tag.substring(colon + 1).trim();
+
+        if (name.equals("link")) {
+            return new Link(MarkdownV2Utils.escape(modifier == null || modifier.isEmpty() ? "View Changes" : modifier));
+        }
+        Field field;
+        try {
+            field = Field.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown field {" + name + "}");
+        }
+        if (field.perCommit && !inSection) {
+            throw new IllegalArgumentException("{" + name + "} is only valid inside {#commits}");
+        }
+        Style style;
+        try {
+            style = modifier == null ? Style.TEXT : Style.valueOf(modifier.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown style {" + tag + "}, expected bold, italic or code");
+        }
+        return new FieldRef(field, style);
+    }
+
+    private static int sectionMax(String tag) {
+        int colon = tag.indexOf(':');
+        String name = colon < 0 ? tag.trim() : tag.substring(0, colon).trim();
+        if (!name.equals("commits")) {
+            throw new IllegalArgumentException("Unknown section {#" + name + "}");
+        }
+        if (colon < 0) {
+            return DEFAULT_MAX_COMMITS;
+        }
+        try {
+            int max = Integer.parseInt(tag.substring(colon + 1).trim());
+            if (max < 0) {
+                throw new NumberFormatException();
+            }
+            return max;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid commit limit in {#" + tag + "}");
+        }
+    }
+
+    private static void flushLiteral(StringBuilder literal, List<Segment> target) {
+        if (!literal.isEmpty()) {
+            target.add(new Literal(MarkdownV2Utils.escape(literal.toString())));
+            literal.setLength(0);
+        }
+    }
+
+    private static int firstLineEnd(String message) {
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
+        }
+        return message.length();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
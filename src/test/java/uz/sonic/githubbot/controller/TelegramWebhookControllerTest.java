@@ -0,0 +1,104 @@
+package uz.sonic.githubbot.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import uz.sonic.githubbot.filter.WebhookSignatureFilter;
+import uz.sonic.githubbot.service.AdminBotService;
+import uz.sonic.githubbot.service.LeaderLeaseService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebMvcTest(controllers = TelegramWebhookController.class, excludeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE, classes = WebhookSignatureFilter.class))
+@TestPropertySource(properties = {
+        "telegram.admin.updates.mode=webhook",
+        "telegram.admin.updates.webhook-url=https://bot.example.com/api/telegram/webhook",
+        "telegram.admin.updates.secret-token=webhook-secret"
+})
+class TelegramWebhookControllerTest {
+
+    @Autowired
+    private MockMvcTester mvc;
+
+    @MockitoBean
+    private AdminBotService adminBotService;
+
+    @MockitoBean
+    private LeaderLeaseService leaderLease;
+
+    @BeforeEach
+    void holdLease() {
+        when(leaderLease.isLeader()).thenReturn(true);
+    }
+
+    @Test
+    void rejectsUpdatesWithoutTheSecretToken() {
+        assertThat(post(startUpdate(), "wrong")).hasStatus(HttpStatus.FORBIDDEN);
+        assertThat(post(startUpdate(), null)).hasStatus(HttpStatus.FORBIDDEN);
+        verify(adminBotService, never()).consume(any());
+    }
+
+    @Test
+    void rejectsMalformedUpdates() {
+        assertThat(post("{\"update_id\":", "webhook-secret")).hasStatus(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void handsUpdatesToTheAdminBot() {
+        assertThat(post(startUpdate(), "webhook-secret")).hasStatus(HttpStatus.OK);
+
+        verify(adminBotService).consume(argThat(updates -> updates.size() == 1
+                && updates.getFirst().getMessage().getText().equals("/start")));
+    }
+
+    @Test
+    void answersServiceUnavailableWithoutTheLease() {
+        when(leaderLease.isLeader()).thenReturn(false);
+
+        assertThat(post(startUpdate(), "webhook-secret")).hasStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        verify(adminBotService, never()).consume(any());
+    }
+
+    @Nested
+    @TestPropertySource(properties = "telegram.admin.updates.mode=polling")
+    class PollingMode {
+
+        @Test
+        void answersNotFound() {
+            assertThat(post(startUpdate(), "webhook-secret")).hasStatus(HttpStatus.NOT_FOUND);
+            verify(adminBotService, never()).consume(any());
+        }
+    }
+
+    private MockMvcTester.MockMvcRequestBuilder post(String body, String secretToken) {
+        MockMvcTester.MockMvcRequestBuilder request = mvc.post().uri("/api/telegram/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+        if (secretToken != null) {
+            request.header("X-Telegram-Bot-Api-Secret-Token", secretToken);
+        }
+        return request;
+    }
+
+    private static String startUpdate() {
+        return """
+                {"update_id":1,"message":{"message_id":10,"date":1700000000,
+                "chat":{"id":789012,"type":"supergroup"},"text":"/start"}}
+                """;
+    }
+}
@@ -0,0 +1,192 @@
+package uz.sonic.githubbot.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded stand-in for the Telegram Bot API. It answers the methods the bot
+ * uses, with configurable latency and injected 429 and 500 responses, and
+ * reports every delivered message text to a listener.
+ */
+public final class FakeTelegramBotApi implements AutoCloseable {
+
+    /**
+     * @param rateLimitRatio share of calls answered with 429 and {@code retry_after}
+     * @param errorRatio share of calls answered with 500
+     */
+    public record Behaviour(Duration latency, Duration jitter, double rateLimitRatio, int retryAfterSeconds,
+                            double errorRatio) {
+
+        public static Behaviour healthy() {
+            return new Behaviour(Duration.ZERO, Duration.ZERO, 0, 1, 0);
+        }
+    }
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final Pattern PART_NAME = Pattern.compile("name=\"([^\"]+)\"");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Behaviour behaviour;
+    private final Consumer<String> onMessage;
+    private final AtomicInteger ids = new AtomicInteger(1000);
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final Map<String, JsonNode> lastRequests = new ConcurrentHashMap<>();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public FakeTelegramBotApi(Behaviour behaviour, Consumer<String> onMessage) throws IOException {
+        this.behaviour = behaviour;
+        this.onMessage = onMessage;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public URI url() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public long calls(String method) {
+        LongAdder count = calls.get(method.toLowerCase(Locale.ROOT));
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Parameters of the most recent call to {@code method}, or {@code null}.
+     */
+    public JsonNode lastRequest(String method) {
+        return lastRequests.get(method.toLowerCase(Locale.ROOT));
+    }
+
+    public long rateLimited() {
+        return rateLimited.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Path is /bot<token>/<method>; the client sends method names in lower case.
+            String path = exchange.getRequestURI().getPath();
+            String method = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+            JsonNode request = readRequest(exchange);
+            calls.computeIfAbsent(method, m -> new LongAdder()).increment();
+            lastRequests.put(method, request);
+
+            if (method.equals("getupdates")) {
+                // Idle long poll: no admin traffic during a load test.
+                sleep(Duration.ofSeconds(Math.min(5, request.path("timeout").asInt(0))));
+                respond(exchange, 200, "{\"ok\":true,\"result\":[]}");
+                return;
+            }
+
+            sleep(latency());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < behaviour.rateLimitRatio()) {
+                rateLimited.increment();
+                respond(exchange, 429, "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after "
+                        + behaviour.retryAfterSeconds() + "\",\"parameters\":{\"retry_after\":"
+                        + behaviour.retryAfterSeconds() + "}}");
+                return;
+            }
+            if (random.nextDouble() < behaviour.errorRatio()) {
+                errors.increment();
+                respond(exchange, 500, "{\"ok\":false,\"error_code\":500,\"description\":\"Internal Server Error\"}");
+                return;
+            }
+
+            respond(exchange, 200, "{\"ok\":true,\"result\":" + result(method, request) + "}");
+            if (method.equals("sendmessage")) {
+                onMessage.accept(request.path("text").asString());
+            }
+        }
+    }
+
+    /**
+     * Reads JSON bodies, and multipart bodies (used by setWebhook) as an object of string fields.
+     */
+    private static JsonNode readRequest(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.startsWith("multipart/")) {
+            return body.length == 0 ? JSON.createObjectNode() : JSON.readTree(body);
+        }
+        String boundary = "--" + contentType.substring(contentType.indexOf("boundary=") + 9);
+        ObjectNode fields = JSON.createObjectNode();
+        for (String part : new String(body, StandardCharsets.UTF_8).split(Pattern.quote(boundary))) {
+            Matcher name = PART_NAME.matcher(part);
+            int valueStart = part.indexOf("\r\n\r\n");
+            if (name.find() && valueStart >= 0) {
+                fields.put(name.group(1), part.substring(valueStart + 4).stripTrailing());
+            }
+        }
+        return fields;
+    }
+
+    private String result(String method, JsonNode request) {
+        long chatId = request.path("chat_id").asLong(0);
+        return switch (method) {
+            case "getme" -> "{\"id\":1,\"is_bot\":true,\"first_name\":\"Fake\",\"username\":\"fake_bot\"}";
+            case "sendmessage", "editmessagetext" -> "{\"message_id\":" + ids.incrementAndGet()
+                    + ",\"date\":" + System.currentTimeMillis() / 1000
+                    + ",\"chat\":{\"id\":" + chatId + ",\"type\":\"supergroup\"}}";
+            case "createforumtopic" -> "{\"message_thread_id\":" + ids.incrementAndGet()
+                    + ",\"name\":" + JSON.writeValueAsString(request.path("name").asString())
+                    + ",\"icon_color\":7322096}";
+            default -> "true";
+        };
+    }
+
+    private Duration latency() {
+        long jitter = behaviour.jitter().toNanos();
+        return behaviour.latency().plusNanos(jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0);
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,166 @@
+package uz.sonic.githubbot.load;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import uz.sonic.githubbot.GithubBotApplication;
+import uz.sonic.githubbot.entity.RepoTopicMapping;
+import uz.sonic.githubbot.service.LeaderLeaseService;
+import uz.sonic.githubbot.service.RepoRoutingTable;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Capacity test for the webhook-to-Telegram path. Boots the bot in-process
+ * against {@link FakeTelegramBotApi}, replays signed push deliveries with
+ * {@link WebhookReplayGenerator} and prints a {@link LoadTestReport}.
+ * <p>
+ * Run with {@code ./mvnw -Pload-test test-compile exec:exec}. Harness options
+ * use the {@code --load.} prefix (see {@link #DEFAULTS}); any other argument,
+ * e.g. {@code --telegram.rate-limit.per-chat-per-minute=20}, is passed to the
+ * application. Exits with status 1 when accepted deliveries were dropped.
+ */
+public final class LoadTestHarness {
+
+    private static final String SECRET = "load-test-secret";
+    private static final String REPO = "load/test-repo";
+    private static final Pattern TOKEN = Pattern.compile(WebhookReplayGenerator.TOKEN_PREFIX + "(\\d+)");
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "count", "2000",
+            "rate", "200",
+            "concurrency", "32",
+            "latency", "20ms",
+            "jitter", "30ms",
+            "rate-limit-ratio", "0",
+            "retry-after", "1",
+            "error-ratio", "0",
+            "drain-timeout", "60s");
+
+    // Lifted so the run measures the bot rather than Telegram's published limits.
+    private static final List<String> APP_DEFAULTS = List.of(
+            "--server.port=0",
+            "--management.server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:load-test",
+            "--telegram.bot.token=load-token",
+            "--telegram.bot.username=load_bot",
+            "--telegram.chat-id=-1001",
+            "--telegram.admin-chat-id=1",
+            "--github.webhook.secret=" + SECRET,
+            "--telegram.rate-limit.global-per-second=100000",
+            "--telegram.rate-limit.global-burst=1000",
+            "--telegram.rate-limit.per-chat-per-minute=6000000",
+            "--telegram.rate-limit.per-chat-burst=1000",
+            "--logging.level.uz.sonic.githubbot=WARN",
+            "--journal.directory=" + Path.of(System.getProperty("java.io.tmpdir"),
+                    "github-bot-load-journal-" + ProcessHandle.current().pid()));
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--load.") && arg.contains("=")) {
+                String option = arg.substring("--load.".length(), arg.indexOf('='));
+                if (!DEFAULTS.containsKey(option)) {
+                    throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + DEFAULTS.keySet());
+                }
+                options.put(option, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+        // Repeated properties would bind as a list, so only add defaults that were not overridden.
+        for (String appDefault : APP_DEFAULTS) {
+            String key = appDefault.substring(0, appDefault.indexOf('=') + 1);
+            if (appArgs.stream().noneMatch(arg -> arg.startsWith(key))) {
+                appArgs.add(appDefault);
+            }
+        }
+
+        int count = Integer.parseInt(options.get("count"));
+        FakeTelegramBotApi.Behaviour behaviour = new FakeTelegramBotApi.Behaviour(
+                duration(options.get("latency")),
+                duration(options.get("jitter")),
+                Double.parseDouble(options.get("rate-limit-ratio")),
+                Integer.parseInt(options.get("retry-after")),
+                Double.parseDouble(options.get("error-ratio")));
+
+        LoadTestReport report = new LoadTestReport();
+        ConcurrentMap<Long, Long> sentAt = new ConcurrentHashMap<>();
+        Map<Long, Boolean> delivered = new ConcurrentHashMap<>();
+
+        try (FakeTelegramBotApi telegram = new FakeTelegramBotApi(behaviour, text -> {
+            long now = System.nanoTime();
+            // Coalesced notifications carry several tokens.
+            Matcher matcher = TOKEN.matcher(text);
+            while (matcher.find()) {
+                long token = Long.parseLong(matcher.group(1));
+                Long sent = sentAt.get(token);
+                if (sent == null) {
+                    continue;
+                }
+                if (delivered.putIfAbsent(token, Boolean.TRUE) == null) {
+                    report.recordDelivery(now - sent);
+                } else {
+                    report.recordDuplicateDelivery();
+                }
+            }
+        })) {
+            appArgs.add("--telegram.http.api-url=" + telegram.url());
+            try (ConfigurableApplicationContext context = SpringApplication.run(GithubBotApplication.class,
+                    appArgs.toArray(String[]::new))) {
+                context.getBean(RepoRoutingTable.class).save(new RepoTopicMapping(REPO, 1));
+                awaitLeadership(context.getBean(LeaderLeaseService.class));
+
+                URI webhook = URI.create("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port")
+                        + "/api/github/webhook");
+                WebhookReplayGenerator generator = new WebhookReplayGenerator(webhook, REPO, SECRET);
+
+                System.out.printf("Replaying %d deliveries at %s/s (concurrency %s) against %s%n",
+                        count, options.get("rate"), options.get("concurrency"), telegram.url());
+                report.start();
+                generator.run(count, Double.parseDouble(options.get("rate")),
+                        Integer.parseInt(options.get("concurrency")), sentAt, report);
+
+                long deadline = System.nanoTime() + duration(options.get("drain-timeout")).toNanos();
+                while (report.delivered() < report.accepted() && System.nanoTime() < deadline) {
+                    Thread.sleep(100);
+                }
+
+                System.out.println();
+                System.out.print(report.format());
+                System.out.printf("telegram      sendMessage=%d injected429=%d injected500=%d%n",
+                        telegram.calls("sendMessage"), telegram.rateLimited(), telegram.errors());
+            }
+        }
+        // OkHttp's idle dispatcher threads are not daemons; exit non-zero when notifications were lost.
+        System.exit(report.dropped() == 0 ? 0 : 1);
+    }
+
+    private static void awaitLeadership(LeaderLeaseService leaderLease) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!leaderLease.isLeader()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Instance did not acquire the leader lease");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+}
@@ -0,0 +1,101 @@
+package uz.sonic.githubbot.load;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects webhook response times and end-to-end delivery latencies for one
+ * load run. Samples are kept in full so percentiles are exact.
+ */
+public final class LoadTestReport {
+
+    private final Samples webhookLatency = new Samples();
+    private final Samples deliveryLatency = new Samples();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder duplicateDeliveries = new LongAdder();
+    private volatile long startNanos;
+    private volatile long lastDeliveryNanos;
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void recordWebhook(int status, long nanos) {
+        sent.increment();
+        switch (status) {
+            case 202 -> accepted.increment();
+            case 503 -> rejected.increment();
+            default -> failed.increment();
+        }
+        webhookLatency.add(nanos);
+    }
+
+    void recordDelivery(long nanos) {
+        deliveryLatency.add(nanos);
+        lastDeliveryNanos = System.nanoTime();
+    }
+
+    void recordDuplicateDelivery() {
+        duplicateDeliveries.increment();
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long delivered() {
+        return deliveryLatency.count();
+    }
+
+    /**
+     * Accepted deliveries that never reached the fake Bot API.
+     */
+    public long dropped() {
+        return Math.max(0, accepted() - delivered());
+    }
+
+    public String format() {
+        double elapsedSeconds = Math.max(1, lastDeliveryNanos - startNanos) / 1e9;
+        return String.format(Locale.ROOT, """
+                webhooks      sent=%d accepted=%d rejected(503)=%d failed=%d
+                webhook       p50=%.1fms p99=%.1fms max=%.1fms
+                notifications delivered=%d dropped=%d duplicated=%d throughput=%.1f/s
+                end-to-end    p50=%.1fms p99=%.1fms max=%.1fms
+                """,
+                sent.sum(), accepted(), rejected.sum(), failed.sum(),
+                webhookLatency.percentileMillis(50), webhookLatency.percentileMillis(99), webhookLatency.percentileMillis(100),
+                delivered(), dropped(), duplicateDeliveries.sum(), delivered() / elapsedSeconds,
+                deliveryLatency.percentileMillis(50), deliveryLatency.percentileMillis(99), deliveryLatency.percentileMillis(100));
+    }
+
+    private static final class Samples {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized double percentileMillis(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * size) - 1;
+            return sorted[Math.clamp(index, 0, size - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package uz.sonic.githubbot.load;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays signed GitHub push deliveries at a fixed rate with bounded
+ * concurrency. Every delivery carries a unique {@code loadtoken<n>} commit
+ * message so its Telegram message can be matched back to it.
+ */
+public final class WebhookReplayGenerator {
+
+    public static final String TOKEN_PREFIX = "loadtoken";
+
+    private final URI webhookUrl;
+    private final String repoFullName;
+    private final byte[] secret;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    public WebhookReplayGenerator(URI webhookUrl, String repoFullName, String secret) {
+        this.webhookUrl = webhookUrl;
+        this.repoFullName = repoFullName;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends {@code count} deliveries at {@code ratePerSecond}, with at most
+     * {@code concurrency} requests in flight, and blocks until all complete.
+     * Send times are written to {@code sentAt} before each request starts.
+     */
+    public void run(int count, double ratePerSecond, int concurrency, ConcurrentMap<Long, Long> sentAt,
+                    LoadTestReport report) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long token = 0; token < count; token++) {
+                // Pace against the schedule rather than the previous send so slow responses don't skew the rate.
+                long due = start + token * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                inFlight.acquire();
+                long id = token;
+                workers.execute(() -> {
+                    try {
+                        send(id, sentAt, report);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void send(long token, ConcurrentMap<Long, Long> sentAt, LoadTestReport report) {
+        byte[] body = payload(token).getBytes(StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(webhookUrl)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("X-GitHub-Event", "push")
+                .header("X-GitHub-Delivery", UUID.randomUUID().toString())
+                .header("X-Hub-Signature-256", "sha256=" + sign(body))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        long begin = System.nanoTime();
+        sentAt.put(token, begin);
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            report.recordWebhook(response.statusCode(), System.nanoTime() - begin);
+            if (response.statusCode() != 202) {
+                sentAt.remove(token);
+            }
+        } catch (Exception e) {
+            sentAt.remove(token);
+            report.recordWebhook(-1, System.nanoTime() - begin);
+        }
+    }
+
+    private String payload(long token) {
+        String after = "%040x".formatted(token + 1);
+        String name = repoFullName.substring(repoFullName.indexOf('/') + 1);
+        return """
+                {"ref":"refs/heads/main","before":"%s","after":"%s",\
+                "compare":"https://github.com/%s/compare/%s","total_commits":1,\
+                "repository":{"name":"%s","full_name":"%s","html_url":"https://github.com/%s","default_branch":"main"},\
+                "pusher":{"name":"load","email":"load@example.com"},\
+                "commits":[{"id":"%s","message":"%s%d","timestamp":"2024-01-01T00:00:00Z",\
+                "url":"https://github.com/%s/commit/%s","author":{"name":"load","email":"load@example.com"}}]}
+                """.formatted("0".repeat(40), after, repoFullName, after, name, repoFullName, repoFullName,
+                after, TOKEN_PREFIX, token, repoFullName, after);
+    }
+
+    private String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package uz.sonic.githubbot.service;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.TelegramUrl;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.chat.Chat;
+import org.telegram.telegrambots.meta.api.objects.forum.ForumTopic;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+import uz.sonic.githubbot.config.AdminUpdatesProperties;
+import uz.sonic.githubbot.config.TelegramHttpProperties;
+import uz.sonic.githubbot.entity.RepoTopicMapping;
+import uz.sonic.githubbot.repository.RepoTopicMappingRepository;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminBotServiceTest {
+
+    private static final Long ADMIN_CHAT_ID = -100123L;
+
+    private static final AdminUpdatesProperties WEBHOOK = new AdminUpdatesProperties(
+            AdminUpdatesProperties.Mode.WEBHOOK, URI.create("https://bot.example.com/api/telegram/webhook"),
+            "webhook-secret", 10);
+
+    private final TelegramNotificationService notificationService = mock(TelegramNotificationService.class);
+    private final RepoTopicMappingRepository repository = mock(RepoTopicMappingRepository.class);
+
+    @Test
+    void retriesAFailedWebhookRegistrationOnLeaseRenewal() throws TelegramApiException {
+        TelegramClient telegramClient = mock(TelegramClient.class);
+        when(telegramClient.execute(any(SetWebhook.class)))
+                .thenThrow(new TelegramApiException("Telegram unreachable"))
+                .thenReturn(true);
+        AdminBotService service = service(telegramClient);
+
+        service.onLeadershipChanged(new LeaderLeaseService.LeadershipChanged(true));
+        service.onLeaseRenewed(new LeaderLeaseService.LeaseRenewed());
+        // Registered now, so further renewals leave it alone.
+        service.onLeaseRenewed(new LeaderLeaseService.LeaseRenewed());
+
+        verify(telegramClient, times(2)).execute(argThat((SetWebhook setWebhook) ->
+                setWebhook.getUrl().equals("https://bot.example.com/api/telegram/webhook")
+                        && setWebhook.getSecretToken().equals("webhook-secret")));
+    }
+
+    @Test
+    void slowCommandOfOneAdminDoesNotHoldUpAnother() throws Exception {
+        var release = new CountDownLatch(1);
+        when(repository.findByRepoFullNameStartingWithAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any()))
+                .thenAnswer(call -> {
+                    release.await();
+                    return List.of();
+                });
+        AdminBotService service = service(mock(TelegramClient.class));
+
+        try {
+            service.consume(List.of(message(1, "/repos"), message(2, "/help")));
+
+            verify(notificationService, timeout(2000)).sendMessage(contains("Admin Bot Buyruqlari"), any(), any());
+        } finally {
+            release.countDown();
+            service.stop();
+        }
+    }
+
+    @Test
+    void repoNamePromptBelongsToTheAdminWhoOpenedIt() throws Exception {
+        ForumTopic topic = mock(ForumTopic.class);
+        when(topic.getMessageThreadId()).thenReturn(42);
+        when(notificationService.createForumTopic(any())).thenReturn(topic);
+        AdminBotService service = service(mock(TelegramClient.class));
+
+        try {
+            service.consume(List.of(callback(1, "add_repo"), message(2, "acme/other"), message(1, "acme/api")));
+
+            verify(notificationService, after(500).times(1)).createForumTopic(any());
+            verify(notificationService).createForumTopic("api");
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void refusesARepoPrefixThatDoesNotFitInCallbackData() throws Exception {
+        AdminBotService service = service(mock(TelegramClient.class));
+
+        try {
+            // 30 characters, but 60 bytes of UTF-8.
+            service.consume(List.of(message(1, "/repos " + "ш".repeat(30))));
+
+            verify(notificationService, timeout(2000)).sendMessage(contains("Qidiruv prefiksi 42 baytdan"), any(), any());
+            verify(repository, never()).findByRepoFullNameStartingWithAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void refusesBranchRulesLongerThanTheirColumn() throws Exception {
+        when(repository.findByRepoFullName("acme/api")).thenReturn(Optional.of(new RepoTopicMapping("acme/api", 42)));
+        RepoRoutingTable routingTable = mock(RepoRoutingTable.class);
+        AdminBotService service = service(mock(TelegramClient.class), routingTable);
+
+        try {
+            String rules = String.join(" ", Collections.nCopies(200, "release/*"));
+            service.consume(List.of(message(1, "/branches acme/api " + rules)));
+
+            verify(notificationService, timeout(2000)).sendMessage(contains("1024 belgidan"), any(), any());
+            verify(routingTable, never()).save(any());
+        } finally {
+            service.stop();
+        }
+    }
+
+    private AdminBotService service(TelegramClient telegramClient) {
+        return service(telegramClient, mock(RepoRoutingTable.class));
+    }
+
+    private AdminBotService service(TelegramClient telegramClient, RepoRoutingTable routingTable) {
+        var httpProperties = new TelegramHttpProperties(URI.create("http://127.0.0.1:1"), 1, Duration.ofMinutes(1),
+                1, 1, false, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(2));
+        return new AdminBotService("test-token", ADMIN_CHAT_ID.toString(), Duration.ofMinutes(5),
+                mock(TelegramOutboundScheduler.class), notificationService, repository, routingTable,
+                null, null, null, null, new OkHttpClient(), httpProperties,
+                new TelegramUrl("http", "127.0.0.1", 1, false), telegramClient, WEBHOOK, mock(LeaderLeaseService.class));
+    }
+
+    private static Update message(long userId, String text) {
+        Message message = new Message();
+        message.setMessageId(1);
+        message.setChat(Chat.builder().id(ADMIN_CHAT_ID).type("supergroup").build());
+        message.setFrom(User.builder().id(userId).firstName("Admin " + userId).isBot(false).build());
+        message.setText(text);
+        Update update = new Update();
+        update.setMessage(message);
+        return update;
+    }
+
+    private static Update callback(long userId, String data) {
+        CallbackQuery query = new CallbackQuery();
+        query.setId("query-" + userId);
+        query.setFrom(User.builder().id(userId).firstName("Admin " + userId).isBot(false).build());
+        query.setMessage(message(userId, "menu").getMessage());
+        query.setData(data);
+        Update update = new Update();
+        update.setCallbackQuery(query);
+        return update;
+    }
+}
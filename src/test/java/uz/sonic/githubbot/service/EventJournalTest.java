@@ -0,0 +1,217 @@
+package uz.sonic.githubbot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import uz.sonic.githubbot.config.EventJournalProperties;
+import uz.sonic.githubbot.config.GitHubWebhookProperties;
+import uz.sonic.githubbot.entity.RepoTopicMapping;
+import uz.sonic.githubbot.model.Commit;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.model.Pusher;
+import uz.sonic.githubbot.model.Repository;
+import uz.sonic.githubbot.service.RepoRoutingTable.Route;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventJournalTest {
+
+    @TempDir
+    Path root;
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final List<PushEvent> submitted = new ArrayList<>();
+    private final List<EventJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void stopJournals() throws InterruptedException {
+        for (EventJournal journal : journals) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void replaysOneRepoInATimeRangeAcrossSegments() throws Exception {
+        EventJournal journal = journal("a", null);
+        map("acme/api");
+        Instant start = Instant.now();
+        for (int i = 0; i < 30; i++) {
+            journal.append("delivery-" + i, push(i % 3 == 0 ? "acme/web" : "acme/api", i));
+        }
+        awaitSegments(root.resolve("a"), 2);
+        Instant end = Instant.now().plusMillis(1);
+
+        EventJournal.ReplayResult api = journal.replay("acme/api", start, end);
+        assertThat(api.found()).isEqualTo(20);
+        assertThat(api.queued()).isEqualTo(20);
+
+        // acme/web is not mapped, so its pushes are found but skipped.
+        EventJournal.ReplayResult all = journal.replay(null, start, end);
+        assertThat(all.found()).isEqualTo(30);
+        assertThat(all.skipped()).isEqualTo(10);
+
+        assertThat(journal.replay(null, end, end.plusSeconds(60)).found()).isZero();
+    }
+
+    @Test
+    void decodesRawBodiesOfPushesToReposMappedLater() throws Exception {
+        EventJournal journal = journal("a", null);
+        Instant start = Instant.now();
+        byte[] body = rawPush("acme/new").getBytes(StandardCharsets.UTF_8);
+        byte[] pooled = new byte[body.length + 16];
+        System.arraycopy(body, 0, pooled, 0, body.length);
+
+        journal.appendRaw("delivery-1", "acme/new", pooled, body.length);
+        // The caller's buffer goes back to its pool and is reused.
+        pooled[0] = 'x';
+        awaitSegments(root.resolve("a"), 1);
+        Instant end = Instant.now().plusMillis(1);
+        assertThat(journal.replay("acme/new", start, end).skipped()).isEqualTo(1);
+
+        map("acme/new");
+        EventJournal.ReplayResult result = journal.replay("acme/new", start, end);
+
+        assertThat(result.queued()).isEqualTo(1);
+        assertThat(submitted.getLast().repository().fullName()).isEqualTo("acme/new");
+        assertThat(submitted.getLast().commits()).extracting(Commit::id).containsExactly("c1");
+    }
+
+    @Test
+    void resubmitsARepeatedPushOnce() throws Exception {
+        EventJournal journal = journal("a", null);
+        map("acme/api");
+        Instant start = Instant.now();
+        // Journaled once when the queue was full and again when GitHub retried it.
+        journal.append("delivery-1", push("acme/api", 1));
+        journal.append("delivery-1", push("acme/api", 1));
+        journal.append("delivery-2", push("acme/api", 2));
+        awaitSegments(root.resolve("a"), 1);
+
+        EventJournal.ReplayResult result = journal.replay(null, start, Instant.now().plusMillis(1));
+
+        assertThat(result.found()).isEqualTo(3);
+        assertThat(result.queued()).isEqualTo(2);
+        assertThat(result.skipped()).isEqualTo(1);
+    }
+
+    @Test
+    void replaysOtherInstancesJournalsFromTheClusterDirectory() throws Exception {
+        EventJournal leader = journal("a", root);
+        EventJournal follower = journal("b", root);
+        map("acme/api");
+        Instant start = Instant.now();
+        leader.append("delivery-1", push("acme/api", 1));
+        Thread.sleep(5);
+        follower.append("delivery-2", push("acme/api", 2));
+        Thread.sleep(5);
+        leader.append("delivery-3", push("acme/api", 3));
+        awaitSegments(root.resolve("a"), 1);
+        awaitSegments(root.resolve("b"), 1);
+
+        EventJournal.ReplayResult result = leader.replay("acme/api", start, Instant.now().plusMillis(1));
+
+        assertThat(result.queued()).isEqualTo(3);
+        // Merged by receive time across instances.
+        assertThat(submitted).extracting(PushEvent::after)
+                .containsExactly("%040x".formatted(2), "%040x".formatted(3), "%040x".formatted(4));
+    }
+
+    @Test
+    void codecRoundTrip() {
+        PushEvent event = push("acme/api", 1);
+        var entry = new EventJournal.Entry(Instant.ofEpochMilli(1_700_000_000_123L), "d-1", event);
+
+        ByteBuffer record = ByteBuffer.wrap(PushEventCodec.encode(entry));
+
+        assertThat(PushEventCodec.receivedAtMillis(record)).isEqualTo(1_700_000_000_123L);
+        assertThat(PushEventCodec.repoFullName(record)).isEqualTo("acme/api");
+        assertThat(PushEventCodec.isRaw(record)).isFalse();
+        assertThat(PushEventCodec.decode(record)).isEqualTo(entry);
+
+        byte[] body = rawPush("acme/new").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer raw = ByteBuffer.wrap(PushEventCodec.encode(
+                new EventJournal.RawEntry(Instant.ofEpochMilli(1_700_000_000_456L), "d-2", "acme/new", body)));
+
+        assertThat(PushEventCodec.receivedAtMillis(raw)).isEqualTo(1_700_000_000_456L);
+        assertThat(PushEventCodec.repoFullName(raw)).isEqualTo("acme/new");
+        assertThat(PushEventCodec.isRaw(raw)).isTrue();
+        assertThat(PushEventCodec.decodeRaw(raw).deliveryId()).isEqualTo("d-2");
+        assertThat(PushEventCodec.decodeRaw(raw).body()).isEqualTo(body);
+    }
+
+    private EventJournal journal(String instanceId, Path clusterDirectory) throws Exception {
+        var properties = new EventJournalProperties(true, root.resolve(instanceId), DataSize.ofKilobytes(4),
+                DataSize.ofMegabytes(64), Duration.ofDays(1), 1024, Duration.ofMillis(50), clusterDirectory);
+        RepoRoutingTable routingTable = mock(RepoRoutingTable.class);
+        when(routingTable.find(anyString())).thenAnswer(call -> Optional.ofNullable(routes.get(call.getArgument(0))));
+        NotificationPipeline pipeline = mock(NotificationPipeline.class);
+        when(pipeline.submit(any(), any())).thenAnswer(call -> submitted.add(call.getArgument(1)));
+        var reader = new PushEventReader(new GitHubWebhookProperties("secret", Set.of("push"), 10,
+                DataSize.ofMegabytes(10)));
+
+        EventJournal journal = new EventJournal(properties, routingTable, pipeline, reader, new SimpleMeterRegistry());
+        journal.start();
+        journals.add(journal);
+        return journal;
+    }
+
+    private void map(String repoFullName) {
+        routes.put(repoFullName, Route.of(new RepoTopicMapping(repoFullName, 7)));
+    }
+
+    private static void awaitSegments(Path directory, int count) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    if (files.filter(p -> p.toString().endsWith(".seg")).count() >= count) {
+                        Thread.sleep(200);
+                        return;
+                    }
+                }
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Journal did not roll to " + count + " segments");
+    }
+
+    private static String rawPush(String repo) {
+        return """
+                {"ref":"refs/heads/main","before":"aaa","after":"bbb",
+                 "repository":{"name":"%s","full_name":"%s","html_url":"https://github.com/%s","default_branch":"main"},
+                 "pusher":{"name":"alice","email":"a@example.com"},
+                 "compare":"https://github.com/%s/compare/aaa...bbb",
+                 "commits":[{"id":"c1","message":"first","author":{"name":"Alice","email":"a@example.com"}}]}
+                """.formatted(repo.substring(repo.indexOf('/') + 1), repo, repo, repo);
+    }
+
+    private static PushEvent push(String repo, int n) {
+        String sha = "%040x".formatted(n + 1);
+        return new PushEvent("refs/heads/main", "0".repeat(40), sha,
+                "https://github.com/" + repo + "/compare/" + sha,
+                List.of(new Commit(sha, "Change " + n + "\n\nBody with ünïcödé", "2026-01-01T00:00:00Z",
+                        "https://github.com/" + repo + "/commit/" + sha, new Commit.Author("Dev", null))),
+                1, new Repository(repo.substring(repo.indexOf('/') + 1), repo, "https://github.com/" + repo, "main"),
+                new Pusher("dev", "dev@example.com"));
+    }
+}
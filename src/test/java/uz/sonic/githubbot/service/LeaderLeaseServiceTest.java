@@ -0,0 +1,92 @@
+package uz.sonic.githubbot.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uz.sonic.githubbot.config.ClusterProperties;
+import uz.sonic.githubbot.repository.LeaderLeaseRepository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+// Each tick commits on its own, as it does on the lease timer.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaderLeaseServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    private LeaderLeaseRepository repository;
+
+    @Test
+    void onlyOneInstanceHoldsTheLeaseAndAnotherTakesOverAfterExpiry() {
+        List<Object> eventsA = new ArrayList<>();
+        List<Object> eventsB = new ArrayList<>();
+        LeaderLeaseService a = instance("a", repository, eventsA, "failover");
+        LeaderLeaseService b = instance("b", repository, eventsB, "failover");
+
+        a.tick(T0);
+        b.tick(T0);
+        assertThat(a.isLeader()).isTrue();
+        assertThat(b.isLeader()).isFalse();
+
+        // a keeps renewing, so b cannot take over even after the first TTL.
+        a.tick(T0.plusSeconds(10));
+        b.tick(T0.plusSeconds(35));
+        assertThat(b.isLeader()).isFalse();
+
+        // a stops renewing; once its lease expires b takes over and a steps down.
+        b.tick(T0.plusSeconds(41));
+        a.tick(T0.plusSeconds(42));
+        assertThat(b.isLeader()).isTrue();
+        assertThat(a.isLeader()).isFalse();
+        assertThat(eventsA).containsExactly(
+                new LeaderLeaseService.LeadershipChanged(true),
+                new LeaderLeaseService.LeaseRenewed(),
+                new LeaderLeaseService.LeadershipChanged(false));
+        assertThat(eventsB).containsExactly(new LeaderLeaseService.LeadershipChanged(true));
+    }
+
+    @Test
+    void leaderStepsDownBeforeExpiryWhenDatabaseIsUnreachable() {
+        AtomicBoolean failing = new AtomicBoolean();
+        LeaderLeaseRepository flaky = (LeaderLeaseRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{LeaderLeaseRepository.class}, (proxy, method, args) -> {
+                    if (failing.get()) {
+                        throw new DataAccessResourceFailureException("database down");
+                    }
+                    try {
+                        return method.invoke(repository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        LeaderLeaseService a = instance("a", flaky, new ArrayList<>(), "outage");
+
+        a.tick(T0);
+        failing.set(true);
+        a.tick(T0.plusSeconds(10));
+        assertThat(a.isLeader()).isTrue();
+
+        // Lease valid until T0+30s; with a 10s renew interval a gives up at T0+20s.
+        a.tick(T0.plusSeconds(20));
+        assertThat(a.isLeader()).isFalse();
+    }
+
+    private static LeaderLeaseService instance(String id, LeaderLeaseRepository repository,
+                                               List<Object> events, String leaseName) {
+        var properties = new ClusterProperties(id, Duration.ofSeconds(30), Duration.ofSeconds(10), Duration.ofSeconds(30));
+        return new LeaderLeaseService(repository, properties, events::add, leaseName);
+    }
+}
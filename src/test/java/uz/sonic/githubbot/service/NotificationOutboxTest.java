@@ -0,0 +1,130 @@
+package uz.sonic.githubbot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import uz.sonic.githubbot.config.NotificationOutboxProperties;
+import uz.sonic.githubbot.entity.NotificationOutboxEntry;
+import uz.sonic.githubbot.entity.OutboxStatus;
+import uz.sonic.githubbot.repository.NotificationOutboxRepository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+// The dispatcher reads what the test wrote from its own threads.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxTest {
+
+    private static final NotificationOutboxProperties PROPERTIES = new NotificationOutboxProperties(
+            5, Duration.ofMillis(200), Duration.ofSeconds(5), Duration.ofMinutes(10), 12);
+
+    @Autowired
+    private NotificationOutboxRepository repository;
+
+    private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    private final AtomicInteger dueQueries = new AtomicInteger();
+    private NotificationOutbox outbox;
+
+    @AfterEach
+    void stopOutbox() {
+        if (outbox != null) {
+            outbox.stop();
+        }
+        repository.deleteAll();
+    }
+
+    @Test
+    void topicBackingOffDoesNotHoldUpOtherTopics() throws Exception {
+        Instant now = Instant.now();
+        NotificationOutboxEntry head = new NotificationOutboxEntry(1, "backing off", now);
+        head.setAttempts(1);
+        head.setNextAttemptAt(now.plus(Duration.ofMinutes(10)));
+        repository.save(head);
+        // More due entries behind it than one dispatch batch holds.
+        for (int i = 0; i < 10; i++) {
+            repository.save(new NotificationOutboxEntry(1, "queued " + i, now));
+        }
+        repository.save(new NotificationOutboxEntry(2, "other topic", now));
+
+        startOutbox();
+
+        assertThat(sent.poll(5, TimeUnit.SECONDS)).isEqualTo("other topic");
+        int queries = dueQueries.get();
+        Thread.sleep(1000);
+        // Polls at the poll interval instead of re-querying for the blocked topic.
+        assertThat(dueQueries.get() - queries).isLessThanOrEqualTo(7);
+        assertThat(sent).isEmpty();
+        assertThat(repository.countByStatus(OutboxStatus.PENDING)).isEqualTo(11);
+    }
+
+    @Test
+    void sendsEachTopicInOrderPastDeadEntries() throws Exception {
+        Instant now = Instant.now();
+        NotificationOutboxEntry dead = new NotificationOutboxEntry(1, "dead", now);
+        dead.setStatus(OutboxStatus.DEAD);
+        repository.save(dead);
+        for (int i = 0; i < 7; i++) {
+            repository.save(new NotificationOutboxEntry(1, "message " + i, now));
+        }
+
+        startOutbox();
+
+        for (int i = 0; i < 7; i++) {
+            assertThat(sent.poll(5, TimeUnit.SECONDS)).isEqualTo("message " + i);
+        }
+        awaitPending(0);
+    }
+
+    private void awaitPending(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (repository.countByStatus(OutboxStatus.PENDING) != count) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Outbox did not reach " + count + " pending entries");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private void startOutbox() throws TelegramApiException {
+        TelegramNotificationService telegram = mock(TelegramNotificationService.class);
+        doAnswer(call -> sent.add(call.getArgument(0))).when(telegram).deliver(anyString(), any(), any());
+        LeaderLeaseService leaderLease = mock(LeaderLeaseService.class);
+        when(leaderLease.instanceId()).thenReturn("a");
+
+        outbox = new NotificationOutbox(countingDueQueries(repository), telegram, PROPERTIES, leaderLease);
+        outbox.start();
+        outbox.onLeadershipChanged(new LeaderLeaseService.LeadershipChanged(true));
+    }
+
+    private NotificationOutboxRepository countingDueQueries(NotificationOutboxRepository target) {
+        return (NotificationOutboxRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{NotificationOutboxRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("findDue")) {
+                        dueQueries.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,165 @@
+package uz.sonic.githubbot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uz.sonic.githubbot.config.NotificationOutboxProperties;
+import uz.sonic.githubbot.config.NotificationPipelineProperties;
+import uz.sonic.githubbot.entity.NotificationOutboxEntry;
+import uz.sonic.githubbot.model.Commit;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.model.Pusher;
+import uz.sonic.githubbot.model.Repository;
+import uz.sonic.githubbot.repository.NotificationOutboxRepository;
+import uz.sonic.githubbot.repository.PendingPushRepository;
+import uz.sonic.githubbot.service.RepoRoutingTable.Route;
+import uz.sonic.githubbot.util.BranchFilter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+// The pipeline's threads read what the test wrote.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationPipelineTest {
+
+    private static final NotificationPipelineProperties PROPERTIES =
+            new NotificationPipelineProperties(100, Duration.ofSeconds(5), Duration.ofMillis(100));
+
+    @Autowired
+    private PendingPushRepository pendingPushes;
+
+    @Autowired
+    private NotificationOutboxRepository outboxEntries;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<NotificationPipeline> pipelines = new ArrayList<>();
+
+    @AfterEach
+    void stopPipelines() {
+        pipelines.forEach(NotificationPipeline::stop);
+        pendingPushes.deleteAll();
+        outboxEntries.deleteAll();
+    }
+
+    @Test
+    void sendsEachPushWithoutAWindowAsItsOwnMessage() throws Exception {
+        Route route = route(null, null);
+        NotificationPipeline pipeline = pipeline(route, true);
+
+        assertThat(pipeline.submit(route, push("refs/heads/main", 1))).isTrue();
+        assertThat(pipeline.submit(route, push("refs/heads/main", 2))).isTrue();
+
+        assertThat(awaitMessages(2)).containsExactly("main: 1", "main: 2");
+        assertThat(pendingPushes.count()).isZero();
+    }
+
+    @Test
+    void closesADigestAtItsMaxBatch() throws Exception {
+        Route route = route(60, 2);
+        NotificationPipeline pipeline = pipeline(route, true);
+
+        pipeline.submit(route, push("refs/heads/main", 1));
+        pipeline.submit(route, push("refs/heads/main", 2));
+        pipeline.submit(route, push("refs/heads/main", 3));
+
+        assertThat(awaitMessages(1)).containsExactly("main: 1,2");
+        // The third push waits in its own window, in the table.
+        Thread.sleep(300);
+        assertThat(outboxEntries.count()).isEqualTo(1);
+        assertThat(pendingPushes.count()).isEqualTo(1);
+    }
+
+    @Test
+    void closesADigestWhenItsWindowEndsOrAnotherBranchIsPushed() throws Exception {
+        Route route = route(1, 10);
+        NotificationPipeline pipeline = pipeline(route, true);
+
+        pipeline.submit(route, push("refs/heads/main", 1));
+        pipeline.submit(route, push("refs/heads/main", 2));
+        pipeline.submit(route, push("refs/heads/dev", 3));
+
+        assertThat(awaitMessages(1)).containsExactly("main: 1,2");
+        assertThat(awaitMessages(2)).containsExactly("main: 1,2", "dev: 3");
+    }
+
+    @Test
+    void leaderSendsPushesSavedByAnInstanceThatStopped() throws Exception {
+        Route route = route(null, null);
+        NotificationPipeline follower = pipeline(route, false);
+        assertThat(follower.submit(route, push("refs/heads/main", 1))).isTrue();
+        follower.stop();
+        assertThat(follower.submit(route, push("refs/heads/main", 2))).isFalse();
+        assertThat(pendingPushes.count()).isEqualTo(1);
+
+        pipeline(route, true);
+
+        assertThat(awaitMessages(1)).containsExactly("main: 1");
+    }
+
+    private NotificationPipeline pipeline(Route route, boolean leader) {
+        GitHubWebhookService webhookService = mock(GitHubWebhookService.class);
+        when(webhookService.formatPushDigest(anyList(), any())).thenAnswer(call -> {
+            List<PushEvent> events = call.getArgument(0);
+            return events.getFirst().ref().substring("refs/heads/".length()) + ": "
+                    + String.join(",", events.stream().map(e -> String.valueOf(e.totalCommits())).toList());
+        });
+        RepoRoutingTable routingTable = mock(RepoRoutingTable.class);
+        when(routingTable.find(anyString())).thenReturn(Optional.of(route));
+        LeaderLeaseService leaderLease = mock(LeaderLeaseService.class);
+        when(leaderLease.instanceId()).thenReturn("a");
+        // Never started, so messages stay in the table for the assertions.
+        var outbox = new NotificationOutbox(outboxEntries, mock(TelegramNotificationService.class),
+                new NotificationOutboxProperties(10, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                        Duration.ofSeconds(1), 1), leaderLease);
+
+        var pipeline = new NotificationPipeline(webhookService, outbox, pendingPushes, routingTable,
+                transactionManager, PROPERTIES, new SimpleMeterRegistry());
+        pipeline.start();
+        pipeline.onLeadershipChanged(new LeaderLeaseService.LeadershipChanged(leader));
+        pipelines.add(pipeline);
+        return pipeline;
+    }
+
+    private List<String> awaitMessages(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            List<NotificationOutboxEntry> entries = outboxEntries.findAll();
+            if (entries.size() >= count) {
+                return entries.stream().map(NotificationOutboxEntry::getText).toList();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Outbox did not reach " + count + " messages");
+    }
+
+    private static Route route(Integer windowSeconds, Integer maxBatch) {
+        return new Route("acme/api", 7, windowSeconds, maxBatch, BranchFilter.compile(null), null);
+    }
+
+    // The commit count tells the pushes apart in the rendered text.
+    private static PushEvent push(String ref, int n) {
+        String sha = "%040x".formatted(n);
+        return new PushEvent(ref, "0".repeat(40), sha, "https://github.com/acme/api/compare/" + sha,
+                List.of(new Commit(sha, "Change " + n, "2026-01-01T00:00:00Z",
+                        "https://github.com/acme/api/commit/" + sha, new Commit.Author("Dev", null))),
+                n, new Repository("api", "acme/api", "https://github.com/acme/api", "main"),
+                new Pusher("dev", "dev@example.com"));
+    }
+}
@@ -0,0 +1,77 @@
+package uz.sonic.githubbot.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import uz.sonic.githubbot.config.GitHubWebhookProperties;
+import uz.sonic.githubbot.model.PushEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PushEventReaderTest {
+
+    private final PushEventReader reader = new PushEventReader(
+            new GitHubWebhookProperties("secret", Set.of("push"), 2, DataSize.ofMegabytes(10)));
+
+    @Test
+    void readsNeededFieldsAndCountsSkippedCommits() {
+        PushEvent event = read("""
+                {"ref":"refs/heads/main","before":"aaa","after":"bbb",
+                 "repository":{"id":1,"name":"repo","full_name":"owner/repo","owner":{"login":"owner"},
+                               "html_url":"https://github.com/owner/repo","default_branch":"main","topics":["x"]},
+                 "pusher":{"name":"alice","email":"a@example.com"},
+                 "sender":{"login":"alice","site_admin":false},
+                 "compare":"https://github.com/owner/repo/compare/aaa...bbb",
+                 "commits":[
+                   {"id":"c1","message":"first","author":{"name":"Alice","email":"a@example.com","username":"alice"},"added":[]},
+                   {"id":"c2","message":"second","author":{"name":"Bob","email":"b@example.com"}},
+                   {"id":"c3","message":"third"}
+                 ],
+                 "head_commit":{"id":"c3","message":"third"}}
+                """);
+
+        assertThat(event.ref()).isEqualTo("refs/heads/main");
+        assertThat(event.compare()).isEqualTo("https://github.com/owner/repo/compare/aaa...bbb");
+        assertThat(event.repository().fullName()).isEqualTo("owner/repo");
+        assertThat(event.repository().defaultBranch()).isEqualTo("main");
+        assertThat(event.pusher().name()).isEqualTo("alice");
+        assertThat(event.commits()).extracting(c -> c.id()).containsExactly("c1", "c2");
+        assertThat(event.commits().get(1).author().name()).isEqualTo("Bob");
+        assertThat(event.commitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void keepsMergeHeadCommitBeyondLimit() {
+        PushEvent event = read("""
+                {"ref":"refs/heads/main","commits":[
+                   {"id":"c1","message":"one"},{"id":"c2","message":"two"},{"id":"c3","message":"three"},
+                   {"id":"m1","message":"Merge pull request #7 from owner/feature\\n\\nAdds things"}],
+                 "head_commit":{"id":"m1","message":"Merge pull request #7 from owner/feature\\n\\nAdds things"},
+                 "repository":{"full_name":"owner/repo","default_branch":"main"},
+                 "pusher":{"name":"alice"}}
+                """);
+
+        assertThat(event.commits()).extracting(c -> c.id()).containsExactly("c1", "c2", "m1");
+        assertThat(event.commitCount()).isEqualTo(4);
+    }
+
+    @Test
+    void previewReadsRoutingFieldsOnly() {
+        byte[] bytes = """
+                {"ref":"refs/heads/feature","before":"aaa",
+                 "repository":{"full_name":"owner/repo","owner":{"login":"owner"},"default_branch":"main"},
+                 "commits":[{"id":"c1","message":"unterminated
+                """.getBytes(StandardCharsets.UTF_8);
+
+        PushEventReader.Preview preview = reader.preview(bytes, 0, bytes.length);
+
+        assertThat(preview).isEqualTo(new PushEventReader.Preview("refs/heads/feature", "owner/repo", "main"));
+    }
+
+    private PushEvent read(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return reader.read(bytes, 0, bytes.length);
+    }
+}
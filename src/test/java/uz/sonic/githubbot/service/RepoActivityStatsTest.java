@@ -0,0 +1,89 @@
+package uz.sonic.githubbot.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import uz.sonic.githubbot.config.RepoStatsProperties;
+import uz.sonic.githubbot.model.Commit;
+import uz.sonic.githubbot.model.PushEvent;
+import uz.sonic.githubbot.model.Pusher;
+import uz.sonic.githubbot.model.Repository;
+import uz.sonic.githubbot.repository.RepoActivityBucketRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class RepoActivityStatsTest {
+
+    private static final RepoStatsProperties PROPERTIES =
+            new RepoStatsProperties(List.of(Duration.ofDays(7), Duration.ofHours(24)), Duration.ofMinutes(1), 2);
+
+    @Autowired
+    private RepoActivityBucketRepository repository;
+
+    @Test
+    void countsRollingWindowsAndReloadsPersistedBuckets() {
+        Instant now = Instant.now();
+        RepoActivityStats stats = stats("a");
+        stats.record(push("acme/api", "alice", 3, "x@example.com", "y@example.com"), now);
+        stats.record(push("acme/api", "alice", 1, "X@example.com"), now.minus(Duration.ofHours(2)));
+        stats.record(push("acme/api", "bob", 2, "z@example.com"), now.minus(Duration.ofDays(3)));
+        stats.record(push("acme/api", "carol", 5, "old@example.com"), now.minus(Duration.ofDays(8)));
+        stats.record(push("acme/web", "bob", 1, "y@example.com"), now);
+
+        assertSummary(stats.summary("acme/api", now));
+        assertThat(stats.summaries(now)).extracting(RepoActivityStats.Summary::repoFullName)
+                .containsExactly("acme/api", "acme/web");
+
+        stats.persist(now);
+        assertSummary(stats("a").summary("acme/api", now));
+
+        // Another instance's persisted buckets are merged into its summary.
+        RepoActivityStats other = stats("b");
+        other.record(push("acme/api", "dave", 4, "d@example.com"), now);
+        RepoActivityStats.Window day = other.summary("acme/api", now).windows().getFirst();
+        assertThat(day.pushes()).isEqualTo(3);
+        assertThat(day.commits()).isEqualTo(8);
+        assertThat(day.distinctAuthors()).isEqualTo(3);
+    }
+
+    private static void assertSummary(RepoActivityStats.Summary summary) {
+        RepoActivityStats.Window day = summary.windows().get(0);
+        assertThat(day.length()).isEqualTo(Duration.ofHours(24));
+        assertThat(day.pushes()).isEqualTo(2);
+        assertThat(day.commits()).isEqualTo(4);
+        assertThat(day.distinctAuthors()).isEqualTo(2);
+        assertThat(day.topPushers()).containsExactly(new RepoActivityStats.PusherCount("alice", 2));
+
+        RepoActivityStats.Window week = summary.windows().get(1);
+        assertThat(week.pushes()).isEqualTo(3);
+        assertThat(week.commits()).isEqualTo(6);
+        assertThat(week.distinctAuthors()).isEqualTo(3);
+        assertThat(week.topPushers()).containsExactly(
+                new RepoActivityStats.PusherCount("alice", 2), new RepoActivityStats.PusherCount("bob", 1));
+    }
+
+    private RepoActivityStats stats(String instanceId) {
+        LeaderLeaseService leaderLease = mock(LeaderLeaseService.class);
+        when(leaderLease.instanceId()).thenReturn(instanceId);
+        RepoActivityStats stats = new RepoActivityStats(repository, PROPERTIES, leaderLease);
+        stats.load();
+        return stats;
+    }
+
+    private static PushEvent push(String repo, String pusher, int totalCommits, String... authorEmails) {
+        List<Commit> commits = Arrays.stream(authorEmails)
+                .map(email -> new Commit("abc", "Change", null, null, new Commit.Author("Dev", email)))
+                .toList();
+        return new PushEvent("refs/heads/main", "0".repeat(40), "1".repeat(40), null, commits, totalCommits,
+                new Repository(repo.substring(repo.indexOf('/') + 1), repo, "https://github.com/" + repo, "main"),
+                new Pusher(pusher, null));
+    }
+}
@@ -0,0 +1,115 @@
+package uz.sonic.githubbot.service;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.forum.ForumTopic;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import uz.sonic.githubbot.repository.RepoTopicMappingRepository;
+import uz.sonic.githubbot.service.TelegramOutboundScheduler.Priority;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RepoOnboardingServiceTest {
+
+    private final RepoTopicMappingRepository repository = mock(RepoTopicMappingRepository.class);
+    private final RepoRoutingTable routingTable = mock(RepoRoutingTable.class);
+    private final TelegramNotificationService notificationService = mock(TelegramNotificationService.class);
+    private final GitHubRepoLister repoLister = mock(GitHubRepoLister.class);
+    private final RepoOnboardingService service =
+            new RepoOnboardingService(repository, routingTable, notificationService, repoLister);
+
+    @Test
+    void asksForConfirmationBeforeCreatingManyTopics() throws Exception {
+        when(repoLister.listRepos("acme")).thenReturn(repos(RepoOnboardingService.CONFIRM_ABOVE + 1));
+
+        RepoOnboardingService.Result result = service.onboard(List.of("acme/*"), false, p -> {});
+
+        assertThat(result.overLimit()).isEqualTo(RepoOnboardingService.CONFIRM_ABOVE + 1);
+        assertThat(result.created()).isEmpty();
+        verify(notificationService, never()).createForumTopic(anyString(), any());
+    }
+
+    @Test
+    void createsConfirmedTopicsAtLowPriority() throws Exception {
+        when(repoLister.listRepos("acme")).thenReturn(repos(RepoOnboardingService.CONFIRM_ABOVE + 1));
+        AtomicInteger ids = new AtomicInteger();
+        when(notificationService.createForumTopic(anyString(), any())).thenAnswer(call -> topic(ids.incrementAndGet()));
+
+        RepoOnboardingService.Result result = service.onboard(List.of("acme/*"), true, p -> {});
+
+        assertThat(result.overLimit()).isZero();
+        assertThat(result.created()).hasSize(RepoOnboardingService.CONFIRM_ABOVE + 1);
+        verify(notificationService, times(RepoOnboardingService.CONFIRM_ABOVE + 1))
+                .createForumTopic(anyString(), eq(Priority.LOW));
+    }
+
+    @Test
+    void refusesMoreTopicsThanTheLimitEvenWhenConfirmed() throws Exception {
+        when(repoLister.listRepos("acme")).thenReturn(repos(RepoOnboardingService.MAX_TOPICS + 1));
+
+        RepoOnboardingService.Result result = service.onboard(List.of("acme/*"), true, p -> {});
+
+        assertThat(result.overLimit()).isEqualTo(RepoOnboardingService.MAX_TOPICS + 1);
+        verify(notificationService, never()).createForumTopic(anyString(), any());
+    }
+
+    @Test
+    void deletesTopicsCreatedBeforeAnInterruption() throws Exception {
+        var twoCreated = new CountDownLatch(2);
+        AtomicInteger calls = new AtomicInteger();
+        when(notificationService.createForumTopic(anyString(), any())).thenAnswer(call -> {
+            int n = calls.incrementAndGet();
+            if (n > 2) {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    throw new TelegramApiException("Interrupted while waiting for Telegram rate limit", e);
+                }
+            }
+            twoCreated.countDown();
+            return topic(100 + n);
+        });
+
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Thread onboarding = Thread.ofPlatform().start(() -> {
+            try {
+                service.onboard(List.of("acme/a", "acme/b", "acme/c", "acme/d", "acme/e", "acme/f"), false, p -> {});
+                outcome.complete(null);
+            } catch (Throwable e) {
+                outcome.complete(e);
+            }
+        });
+        assertThat(twoCreated.await(5, TimeUnit.SECONDS)).isTrue();
+        onboarding.interrupt();
+
+        assertThat(outcome.get(5, TimeUnit.SECONDS)).isInstanceOf(InterruptedException.class);
+        verify(notificationService).deleteForumTopic(101);
+        verify(notificationService).deleteForumTopic(102);
+        verify(notificationService, times(2)).deleteForumTopic(any());
+        verify(routingTable, never()).saveAll(any());
+    }
+
+    private static List<String> repos(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "acme/repo-" + i).toList();
+    }
+
+    private static ForumTopic topic(int id) {
+        ForumTopic topic = mock(ForumTopic.class);
+        when(topic.getMessageThreadId()).thenReturn(id);
+        return topic;
+    }
+}
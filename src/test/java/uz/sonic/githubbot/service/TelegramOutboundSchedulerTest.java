@@ -0,0 +1,90 @@
+package uz.sonic.githubbot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+import uz.sonic.githubbot.config.TelegramRateLimitProperties;
+import uz.sonic.githubbot.service.TelegramOutboundScheduler.Priority;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TelegramOutboundSchedulerTest {
+
+    private final TelegramClient telegramClient = mock(TelegramClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private TelegramOutboundScheduler scheduler;
+
+    @AfterEach
+    void stop() {
+        callers.shutdownNow();
+        scheduler.stop();
+    }
+
+    @Test
+    void grantsAChatsPermitsInPriorityOrder() throws Exception {
+        // One send per chat per second, so the later calls queue behind the first.
+        scheduler = scheduler(new TelegramRateLimitProperties(1000, 1000, 60, 1, 0));
+        when(telegramClient.execute(any(SendMessage.class))).thenAnswer(call -> {
+            sent.add(call.<SendMessage>getArgument(0).getText());
+            return new Message();
+        });
+
+        scheduler.execute(send("first"), "-1001", Priority.NORMAL);
+        Future<?> low = callers.submit(() -> scheduler.execute(send("low"), "-1001", Priority.LOW));
+        Thread.sleep(100);
+        Future<?> normal = callers.submit(() -> scheduler.execute(send("normal"), "-1001", Priority.NORMAL));
+        Thread.sleep(100);
+        Future<?> high = callers.submit(() -> scheduler.execute(send("high"), "-1001", Priority.HIGH));
+
+        low.get(10, TimeUnit.SECONDS);
+        normal.get(10, TimeUnit.SECONDS);
+        high.get(10, TimeUnit.SECONDS);
+        assertThat(sent).containsExactly("first", "high", "normal", "low");
+    }
+
+    @Test
+    void retriesAfterTheRetryAfterOfA429() throws Exception {
+        scheduler = scheduler(new TelegramRateLimitProperties(1000, 1000, 6000, 100, 1));
+        var tooManyRequests = new TelegramApiRequestException("Too Many Requests",
+                new ApiResponse<>(false, 429, "Too Many Requests: retry after 1", new ResponseParameters(null, 1), null));
+        when(telegramClient.execute(any(SendMessage.class)))
+                .thenThrow(tooManyRequests)
+                .thenReturn(new Message());
+
+        long start = System.nanoTime();
+        scheduler.execute(send("hello"), "-1001", Priority.NORMAL);
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(meterRegistry.get("telegram.api.requests").tag("outcome", "rate_limited").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("telegram.api.requests").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("telegram.api.rate.limited").counter().count()).isEqualTo(1);
+    }
+
+    private TelegramOutboundScheduler scheduler(TelegramRateLimitProperties properties) {
+        return new TelegramOutboundScheduler(telegramClient, properties, meterRegistry);
+    }
+
+    private static SendMessage send(String text) {
+        return SendMessage.builder().chatId("-1001").text(text).build();
+    }
+}
@@ -0,0 +1,61 @@
+package uz.sonic.githubbot.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import uz.sonic.githubbot.config.GitHubWebhookProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookSignatureVerifierTest {
+
+    private static final String SECRET = "test-secret";
+    private static final byte[] PAYLOAD = "{\"ref\":\"refs/heads/main\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier(
+            new GitHubWebhookProperties(SECRET, Set.of("push"), 50, DataSize.ofMegabytes(10)));
+
+    @Test
+    void acceptsValidSignatureInEitherCase() throws Exception {
+        String signature = sign(PAYLOAD);
+        assertThat(verifier.isValid(PAYLOAD, signature)).isTrue();
+        assertThat(verifier.isValid(PAYLOAD, "sha256=" + signature.substring(7).toUpperCase())).isTrue();
+    }
+
+    @Test
+    void rejectsTamperedOrMalformedSignatures() throws Exception {
+        String signature = sign(PAYLOAD);
+        char last = signature.charAt(signature.length() - 1);
+        String tampered = signature.substring(0, signature.length() - 1) + (last == '0' ? '1' : '0');
+
+        assertThat(verifier.isValid(PAYLOAD, tampered)).isFalse();
+        assertThat(verifier.isValid(PAYLOAD, null)).isFalse();
+        assertThat(verifier.isValid(PAYLOAD, "sha1=" + signature.substring(7))).isFalse();
+        assertThat(verifier.isValid(PAYLOAD, signature.substring(0, signature.length() - 2))).isFalse();
+        assertThat(verifier.isValid(PAYLOAD, signature.substring(0, signature.length() - 1) + "g")).isFalse();
+    }
+
+    @Test
+    void streamingSessionMatchesOneShotVerification() throws Exception {
+        String signature = sign(PAYLOAD);
+        WebhookSignatureVerifier.Session session = verifier.begin();
+        session.update(PAYLOAD, 0, 5);
+        session.update(PAYLOAD, 5, PAYLOAD.length - 5);
+        assertThat(session.verify(signature)).isTrue();
+
+        // Pooled instances must start clean after a failed verification.
+        assertThat(verifier.isValid(PAYLOAD, sign("other".getBytes(StandardCharsets.UTF_8)))).isFalse();
+        assertThat(verifier.isValid(PAYLOAD, signature)).isTrue();
+    }
+
+    private static String sign(byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "sha256=" + HexFormat.of().formatHex(mac.doFinal(payload));
+    }
+}
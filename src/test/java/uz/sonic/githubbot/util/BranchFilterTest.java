@@ -0,0 +1,42 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BranchFilterTest {
+
+    @Test
+    void withoutRulesOnlyDefaultBranchMatches() {
+        BranchFilter filter = BranchFilter.compile(null);
+
+        assertThat(filter.matches("refs/heads/main", "main")).isTrue();
+        assertThat(filter.matches("refs/heads/mainline", "main")).isFalse();
+        assertThat(filter.matches("refs/heads/dev", "main")).isFalse();
+        assertThat(filter.matches("refs/tags/main", "main")).isFalse();
+        assertThat(filter.source()).isEmpty();
+    }
+
+    @Test
+    void includeAndExcludePatterns() {
+        BranchFilter filter = BranchFilter.compile("  $default release/*  hotfix-?? feat/*/ui !release/old-* ");
+
+        assertThat(filter.source()).isEqualTo("$default release/* hotfix-?? feat/*/ui !release/old-*");
+        assertThat(filter.matches("refs/heads/master", "master")).isTrue();
+        assertThat(filter.matches("refs/heads/release/1.2", "master")).isTrue();
+        assertThat(filter.matches("refs/heads/release/old-1.0", "master")).isFalse();
+        assertThat(filter.matches("refs/heads/hotfix-42", "master")).isTrue();
+        assertThat(filter.matches("refs/heads/hotfix-420", "master")).isFalse();
+        assertThat(filter.matches("refs/heads/feat/login/ui", "master")).isTrue();
+        assertThat(filter.matches("refs/heads/feat/login/api", "master")).isFalse();
+        assertThat(filter.matches("refs/heads/dev", "master")).isFalse();
+    }
+
+    @Test
+    void explicitIncludesReplaceDefaultBranch() {
+        BranchFilter filter = BranchFilter.compile("develop");
+
+        assertThat(filter.matches("refs/heads/develop", "main")).isTrue();
+        assertThat(filter.matches("refs/heads/main", "main")).isFalse();
+    }
+}
@@ -0,0 +1,23 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteArrayPoolTest {
+
+    @Test
+    void createsNoMoreThanItsPoolSize() {
+        ByteArrayPool pool = new ByteArrayPool(16, 2);
+        byte[] first = pool.acquire();
+        byte[] second = pool.acquire();
+
+        assertThat(first).hasSize(16);
+        assertThat(second).hasSize(16);
+        assertThat(pool.acquire()).isNull();
+
+        pool.release(first);
+        assertThat(pool.acquire()).isSameAs(first);
+        assertThat(pool.acquire()).isNull();
+    }
+}
@@ -0,0 +1,23 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringKeySetTest {
+
+    @Test
+    void releaseAndRetryCyclesStayWithinCapacity() {
+        ExpiringKeySet set = new ExpiringKeySet(TimeUnit.HOURS.toNanos(1), 100);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(set.add("delivery")).isTrue();
+            set.remove("delivery");
+        }
+        assertThat(set.queuedEntries()).isLessThanOrEqualTo(100);
+
+        assertThat(set.add("delivery")).isTrue();
+        assertThat(set.add("delivery")).isFalse();
+    }
+}
@@ -0,0 +1,38 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinExpectedError() {
+        for (int n : new int[]{10, 1_000, 100_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                sketch.add("author-" + i + "@example.com");
+                sketch.add("author-" + i + "@example.com");
+            }
+            // Standard error at precision 10 is about 3.3%.
+            assertThat((double) sketch.estimate()).isCloseTo(n, within(n * 0.1 + 1));
+        }
+    }
+
+    @Test
+    void mergedSketchCountsUnionOnceAndSurvivesSerialisation() {
+        HyperLogLog a = new HyperLogLog();
+        HyperLogLog b = new HyperLogLog();
+        for (int i = 0; i < 3_000; i++) {
+            a.add("user" + i);
+            b.add("user" + (i + 1_000));
+        }
+
+        HyperLogLog union = HyperLogLog.fromBytes(a.toBytes());
+        union.merge(b);
+
+        assertThat((double) union.estimate()).isCloseTo(4_000, within(400.0));
+        assertThat(HyperLogLog.fromBytes(union.toBytes()).estimate()).isEqualTo(union.estimate());
+    }
+}
@@ -0,0 +1,93 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendsUntilFullAndReopensAtTheEnd() throws IOException {
+        Path path = dir.resolve("a.seg");
+        JournalSegment segment = JournalSegment.create(path, 64);
+
+        assertThat(segment.append(bytes("first"))).isZero();
+        assertThat(segment.append(bytes("second"))).isEqualTo(13);
+        assertThat(segment.append(new byte[64])).isEqualTo(-1);
+        segment.force();
+
+        JournalSegment reopened = JournalSegment.open(path);
+        assertThat(reopened.end()).isEqualTo(segment.end());
+        assertThat(text(reopened.read(13))).isEqualTo("second");
+        assertThat(records(reopened)).containsExactly("first", "second");
+    }
+
+    @Test
+    void dropsTornTailOnOpen() throws IOException {
+        Path path = dir.resolve("b.seg");
+        JournalSegment segment = JournalSegment.create(path, 128);
+        segment.append(bytes("kept"));
+        int tornAt = segment.append(bytes("torn"));
+        segment.force();
+
+        // Corrupt the second payload as if the process died mid-write.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("XX")), tornAt + JournalSegment.HEADER_SIZE);
+        }
+
+        JournalSegment reopened = JournalSegment.open(path);
+        assertThat(records(reopened)).containsExactly("kept");
+        assertThat(reopened.append(bytes("next"))).isEqualTo(tornAt);
+        assertThat(records(JournalSegment.open(path))).containsExactly("kept", "next");
+    }
+
+    @Test
+    void readOnlyOpenSeesCompleteRecordsOfALiveSegment() throws IOException {
+        Path path = dir.resolve("c.seg");
+        JournalSegment writer = JournalSegment.create(path, 128);
+        writer.append(bytes("one"));
+        assertThat(records(JournalSegment.openReadOnly(path))).containsExactly("one");
+
+        writer.append(bytes("two"));
+        // A record whose length is written but whose payload is not yet in place.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 10), writer.end());
+        }
+
+        assertThat(records(JournalSegment.openReadOnly(path))).containsExactly("one", "two");
+        // The writer's in-flight record is left alone.
+        assertThat(JournalSegment.openReadOnly(path).end()).isEqualTo(writer.end());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, writer.end());
+            assertThat(length.getInt(0)).isEqualTo(10);
+        }
+    }
+
+    private static List<String> records(JournalSegment segment) {
+        List<String> records = new ArrayList<>();
+        segment.forEach((position, payload) -> records.add(text(payload)));
+        return records;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload).toString();
+    }
+}
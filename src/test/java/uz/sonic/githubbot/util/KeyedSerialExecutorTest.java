@@ -0,0 +1,76 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedSerialExecutorTest {
+
+    @Test
+    void keepsOrderPerKeyAndRunsKeysInParallel() throws InterruptedException {
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            KeyedSerialExecutor<Long> executor = new KeyedSerialExecutor<>(pool);
+            Map<Long, List<Integer>> seen = new ConcurrentHashMap<>();
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(200);
+
+            // Key 1 is stuck on its first task; key 2 must still finish.
+            executor.execute(1L, () -> await(blocked));
+            for (int i = 0; i < 100; i++) {
+                int n = i;
+                for (long key = 1; key <= 2; key++) {
+                    long k = key;
+                    executor.execute(k, () -> {
+                        seen.computeIfAbsent(k, x -> new CopyOnWriteArrayList<>()).add(n);
+                        if (n == 50) {
+                            throw new IllegalStateException("boom");
+                        }
+                    });
+                }
+            }
+            for (int i = 0; i < 100; i++) {
+                executor.execute(i % 2 == 0 ? 1L : 2L, done::countDown);
+                executor.execute(i % 2 == 0 ? 2L : 1L, done::countDown);
+            }
+
+            assertThat(waitFor(() -> seen.getOrDefault(2L, List.of()).size() == 100)).isTrue();
+            assertThat(seen.get(1L)).isNull();
+
+            blocked.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Integer> expected = IntStream.range(0, 100).boxed().toList();
+            assertThat(seen.get(1L)).isEqualTo(expected);
+            assertThat(seen.get(2L)).isEqualTo(expected);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownV2UtilsTest {
+
+    private static final String ALPHABET = "_*[]()~`>#+-=|{}.!\\ abcXYZ019\n\r\t'\"/:é✅🔔";
+
+    @Test
+    void matchesRegexReferenceForGeneratedInputs() {
+        for (String text : inputs()) {
+            assertThat(MarkdownV2Utils.escape(text)).isEqualTo(referenceEscape(text));
+            assertThat(MarkdownV2Utils.bold(text)).isEqualTo("*" + referenceEscape(text) + "*");
+            assertThat(MarkdownV2Utils.italic(text)).isEqualTo("_" + referenceEscape(text) + "_");
+            assertThat(MarkdownV2Utils.code(text))
+                    .isEqualTo("`" + text.replace("\\", "\\\\").replace("`", "\\`") + "`");
+            assertThat(MarkdownV2Utils.link(text, text))
+                    .isEqualTo("[" + referenceEscape(text) + "](" + text.replace("\\", "\\\\").replace(")", "\\)") + ")");
+        }
+    }
+
+    @Test
+    void builderMatchesHelpers() {
+        for (String text : inputs()) {
+            String built = new MarkdownV2Builder()
+                    .text(text).bold(text).italic(text).code(text).link(text, text).text(-42).raw(7)
+                    .toString();
+            String expected = MarkdownV2Utils.escape(text) + MarkdownV2Utils.bold(text)
+                    + MarkdownV2Utils.italic(text) + MarkdownV2Utils.code(text) + MarkdownV2Utils.link(text, text)
+                    + MarkdownV2Utils.escape("-42") + "7";
+            assertThat(built).isEqualTo(expected);
+        }
+    }
+
+    private static String referenceEscape(String text) {
+        return text.replaceAll("([_*\\[\\]()~`>#+\\-=|{}.!\\\\])", "\\\\$1");
+    }
+
+    private static List<String> inputs() {
+        List<String> inputs = new ArrayList<>(List.of("", "plain", ALPHABET, "\\\\", "a.b-c_d"));
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            var sb = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            inputs.add(sb.toString());
+        }
+        return inputs;
+    }
+}
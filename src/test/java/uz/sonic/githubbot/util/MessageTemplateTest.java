@@ -0,0 +1,93 @@
+package uz.sonic.githubbot.util;
+
+import org.junit.jupiter.api.Test;
+import uz.sonic.githubbot.model.Commit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageTemplateTest {
+
+    private static final MessageTemplate.Values VALUES = new MessageTemplate.Values(
+            "acme/web-app", "release/1.2", "octo_cat", 3,
+            List.of(
+                    new Commit("abcdef1234567", "Fix (login)\n\nLonger body.", null, null,
+                            new Commit.Author("Alice", null)),
+                    new Commit("1234567abcdef", "Bump v1.2", null, null, new Commit.Author("Bob", null))),
+            "https://github.com/acme/web-app/compare/a...b");
+
+    @Test
+    void escapesLiteralsAndFieldsByStyle() {
+        MessageTemplate template = MessageTemplate.compile(
+                "Push to {repo:bold} ({branch:code}) by {pusher:italic}! {{literal}}\n{link:Diff}");
+
+        assertThat(template.render(VALUES)).isEqualTo(
+                "Push to *acme/web\\-app* \\(`release/1.2`\\) by _octo\\_cat_\\! \\{literal\\}\n"
+                        + "[Diff](https://github.com/acme/web-app/compare/a...b)");
+    }
+
+    @Test
+    void commitSectionRespectsLimitAndSummarisesTheRest() {
+        MessageTemplate template = MessageTemplate.compile(
+                "{count} commits\n{#commits:1}{sha} {message} - {author}\n{body:italic}\n{/commits}");
+
+        assertThat(template.render(VALUES)).isEqualTo(
+                "3 commits\nabcdef1 Fix \\(login\\) \\- Alice\n_Longer body\\._\n"
+                        + "\\.\\.\\. va yana 2 ta commit\n");
+    }
+
+    @Test
+    void defaultCommitListMatchesBuiltInLayout() {
+        assertThat(MessageTemplate.compile("{commits}").render(VALUES)).isEqualTo(
+                "• `abcdef1` \\- Fix \\(login\\)\n• `1234567` \\- Bump v1\\.2\n\\.\\.\\. va yana 1 ta commit\n");
+    }
+
+    @Test
+    void separatesAdjacentItalicFields() {
+        // Unseparated, "_a__b_" would be read as an underline entity.
+        assertThat(MessageTemplate.compile("{#commits}{message:italic}{/commits}").render(VALUES)).isEqualTo(
+                "_Fix \\(login\\)_\r_Bump v1\\.2_\\.\\.\\. va yana 1 ta commit\n");
+    }
+
+    @Test
+    void dropsCommitsThatDoNotFitTelegramsLimit() {
+        List<Commit> commits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            commits.add(new Commit("%040x".formatted(i), "x".repeat(1000), null, null, null));
+        }
+        var values = new MessageTemplate.Values("acme/web-app", "main", "octo_cat", 10, commits,
+                "https://github.com/acme/web-app/compare/a...b");
+
+        String rendered = MessageTemplate.compile("{repo}\n{#commits}{message}\n{/commits}{link}").render(values);
+
+        assertThat(rendered).hasSizeLessThanOrEqualTo(MessageTemplate.MAX_MESSAGE_LENGTH)
+                .contains("va yana 7 ta commit")
+                .endsWith("[View Changes](https://github.com/acme/web-app/compare/a...b)");
+    }
+
+    @Test
+    void cutsTheTemplateAtTelegramsLimit() {
+        String rendered = MessageTemplate.compile("{compare}\n".repeat(200)).render(VALUES);
+
+        assertThat(rendered).hasSizeLessThanOrEqualTo(MessageTemplate.MAX_MESSAGE_LENGTH).endsWith("\u2026");
+    }
+
+    @Test
+    void rejectsInvalidTemplates() {
+        assertThatThrownBy(() -> MessageTemplate.compile("{nope}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Unknown field");
+        assertThatThrownBy(() -> MessageTemplate.compile("{sha}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("only valid inside");
+        assertThatThrownBy(() -> MessageTemplate.compile("{#commits}{message}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Missing {/commits}");
+        assertThatThrownBy(() -> MessageTemplate.compile("{repo:huge}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Unknown style");
+        assertThatThrownBy(() -> MessageTemplate.compile("{repo"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Unclosed");
+        assertThatThrownBy(() -> MessageTemplate.compile("{#commits}{commits}{/commits}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("not valid inside");
+    }
+}